@@ -0,0 +1,71 @@
+package interprete.benchmarks;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluación de programas completos con Interprete.evaluar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluadorBenchmark {
+
+    /**
+     * Umbral de compilación a bytecode; 0 mide solo el intérprete
+     */
+    @Param({"1000", "0"})
+    private String umbralCompilacion;
+
+    private Interprete interprete;
+    private ElementoBase fib;
+    private ElementoBase bucle;
+    private ElementoBase literales;
+
+    @Setup
+    public void preparar() {
+        System.setProperty("interprete.umbralCompilacion", umbralCompilacion);
+        interprete = new Interprete(new PrintStream(OutputStream.nullOutputStream()));
+        interprete.evaluar(interprete.leer(
+                "(DEF_FUNCION FIB (N) (SI (< N 2) N (+ (FIB (- N 1)) (FIB (- N 2)))))"));
+        interprete.evaluar(interprete.leer(
+                "(DEF_FUNCION SUMA (N AC) (SI (= N 0) AC (SUMA (- N 1) (+ AC N))))"));
+        interprete.evaluar(interprete.leer(
+                "(DEF_FUNCION SEGUNDOS (N AC) (SI (= N 0) AC (SEGUNDOS (- N 1) (+ AC (* 60 60 24)))))"));
+        fib = interprete.leer("(FIB 20)");
+        bucle = interprete.leer("(SUMA 100000 0)");
+        literales = interprete.leer("(SEGUNDOS 100000 0)");
+    }
+
+    /**
+     * Recursión no de cola con aritmética sobre enteros pequeños
+     */
+    @Benchmark
+    public ElementoBase fibonacciRecursivo() {
+        return interprete.evaluar(fib);
+    }
+
+    /**
+     * Bucle de cola de 100.000 iteraciones con un acumulador que crece
+     */
+    @Benchmark
+    public ElementoBase bucleAcumulador() {
+        return interprete.evaluar(bucle);
+    }
+
+    /**
+     * Bucle de cola que en cada iteración calcula una expresión con solo literales
+     */
+    @Benchmark
+    public ElementoBase aritmeticaLiteral() {
+        return interprete.evaluar(literales);
+    }
+}
@@ -0,0 +1,57 @@
+package interprete.benchmarks;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Entero;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suma desde Java de los elementos de una lista de 100.000 enteros, con flujo y flujoParalelo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlujoBenchmark {
+
+    /**
+     * enlaces: lista construida con ENLAZAR; arreglo: la misma lista leída como literal
+     */
+    @Param({"enlaces", "arreglo"})
+    private String representacion;
+
+    private ElementoBase lista;
+
+    @Setup
+    public void preparar() {
+        Interprete interprete = new Interprete(new PrintStream(OutputStream.nullOutputStream()),
+                Interprete.PROFUNDIDAD_MAXIMA_PREDETERMINADA, 0);
+        if (representacion.equals("enlaces")) {
+            interprete.evaluar(interprete.leer(
+                    "(DEF_FUNCION CONSTRUIR (N AC) (SI (= N 0) AC (CONSTRUIR (- N 1) (ENLAZAR N AC))))"));
+            lista = interprete.evaluar(interprete.leer("(CONSTRUIR 100000 VACIO)"));
+        } else {
+            StringBuilder sb = new StringBuilder("'(");
+            for (int i = 1; i <= 100000; i++) {
+                sb.append(' ').append(i);
+            }
+            lista = interprete.evaluar(interprete.leer(sb.append(')').toString()));
+        }
+    }
+
+    @Benchmark
+    public long flujo() {
+        return lista.flujo().mapToLong(elemento -> ((Entero) elemento).valor()).sum();
+    }
+
+    @Benchmark
+    public long flujoParalelo() {
+        return lista.flujoParalelo().mapToLong(elemento -> ((Entero) elemento).valor()).sum();
+    }
+}
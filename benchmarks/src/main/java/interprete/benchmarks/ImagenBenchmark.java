@@ -0,0 +1,80 @@
+package interprete.benchmarks;
+
+import interprete.ImagenGlobal;
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de preparar un intérprete para un hilo de trabajo y evaluar una llamada:
+ * creándolo con su propia imagen y cargando la biblioteca, sobre una imagen
+ * compartida que ya la tiene publicada, o sobre una imagen leída de un archivo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImagenBenchmark {
+    private static final int FUNCIONES = 50;
+
+    private PrintStream salida;
+    private ImagenGlobal imagen;
+    private String[] biblioteca;
+    private Path archivo;
+
+    @Setup
+    public void preparar() throws IOException {
+        salida = new PrintStream(OutputStream.nullOutputStream());
+        biblioteca = new String[FUNCIONES];
+        for (int i = 0; i < FUNCIONES; i++) {
+            biblioteca[i] = "(DEF_FUNCION F" + i + " (X) (SI (< X 1) " + i + " (+ X (F" + i + " (- X 1)))))";
+        }
+
+        imagen = new ImagenGlobal();
+        Interprete cargador = new Interprete(imagen, salida);
+        cargar(cargador);
+        cargador.publicar();
+
+        archivo = Files.createTempFile("imagen", ".bin");
+        imagen.guardar(archivo);
+    }
+
+    @TearDown
+    public void terminar() throws IOException {
+        Files.deleteIfExists(archivo);
+    }
+
+    private void cargar(Interprete interprete) {
+        for (String definicion : biblioteca) {
+            interprete.evaluar(interprete.leer(definicion));
+        }
+    }
+
+    @Benchmark
+    public ElementoBase imagenPropia() {
+        Interprete interprete = new Interprete(salida);
+        cargar(interprete);
+        return interprete.evaluar(interprete.leer("(F7 10)"));
+    }
+
+    @Benchmark
+    public ElementoBase imagenCompartida() {
+        Interprete interprete = new Interprete(imagen, salida);
+        return interprete.evaluar(interprete.leer("(F7 10)"));
+    }
+
+    @Benchmark
+    public ElementoBase imagenArchivo() throws IOException {
+        Interprete interprete = new Interprete(ImagenGlobal.cargar(archivo), salida);
+        return interprete.evaluar(interprete.leer("(F7 10)"));
+    }
+}
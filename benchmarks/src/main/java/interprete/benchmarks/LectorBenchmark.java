@@ -0,0 +1,50 @@
+package interprete.benchmarks;
+
+import interprete.elementos.ElementoBase;
+import interprete.util.LectorEvaluador;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura de expresiones con LectorEvaluador.leer, sin cache y con una cache
+ * que ya tiene el texto
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LectorBenchmark {
+
+    @Param({"pequena", "grande"})
+    private String entrada;
+
+    @Param({"0", "256"})
+    private int capacidadCache;
+
+    private LectorEvaluador lector;
+    private String texto;
+
+    @Setup
+    public void preparar() {
+        lector = new LectorEvaluador(capacidadCache);
+        if (entrada.equals("pequena")) {
+            texto = "(DEF_FUNCION FIB (N) (SI (< N 2) N (+ (FIB (- N 1)) (FIB (- N 2)))))";
+        } else {
+            // Tabla de 10.000 registros con números, símbolos y textos
+            StringBuilder sb = new StringBuilder("'(");
+            for (int i = 0; i < 10000; i++) {
+                sb.append("(registro-").append(i % 50).append(' ').append(i * 37)
+                        .append(" \"nombre ").append(i).append("\") ");
+            }
+            texto = sb.append(')').toString();
+        }
+    }
+
+    @Benchmark
+    public ElementoBase leer() {
+        return lector.leer(texto);
+    }
+}
@@ -0,0 +1,71 @@
+package interprete.benchmarks;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción de listas con LISTA y ENLAZAR, y recorrido de una lista literal
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListasBenchmark {
+    private Interprete interprete;
+    private ElementoBase lista;
+    private ElementoBase enlazar;
+    private ElementoBase recorrer;
+
+    @Setup
+    public void preparar() {
+        interprete = new Interprete(new PrintStream(OutputStream.nullOutputStream()));
+        interprete.evaluar(interprete.leer(
+                "(DEF_FUNCION CONSTRUIR (N AC) (SI (= N 0) AC (CONSTRUIR (- N 1) (ENLAZAR N AC))))"));
+
+        StringBuilder sb = new StringBuilder("(LISTA");
+        for (int i = 0; i < 100; i++) {
+            sb.append(' ').append(i);
+        }
+        lista = interprete.leer(sb.append(')').toString());
+        enlazar = interprete.leer("(CONSTRUIR 1000 VACIO)");
+
+        interprete.evaluar(interprete.leer(
+                "(DEF_FUNCION SUMAR_LISTA (L AC) (SI (NULO L) AC (SUMAR_LISTA (RESTO L) (+ AC (PRIMERO L)))))"));
+        sb = new StringBuilder("(SUMAR_LISTA '(");
+        for (int i = 0; i < 1000; i++) {
+            sb.append(' ').append(i);
+        }
+        recorrer = interprete.leer(sb.append(") 0)").toString());
+    }
+
+    /**
+     * Una llamada a LISTA con 100 argumentos
+     */
+    @Benchmark
+    public ElementoBase lista() {
+        return interprete.evaluar(lista);
+    }
+
+    /**
+     * Lista de 1.000 elementos construida con ENLAZAR desde una función de usuario
+     */
+    @Benchmark
+    public ElementoBase enlazar() {
+        return interprete.evaluar(enlazar);
+    }
+
+    /**
+     * Suma con PRIMERO y RESTO los 1.000 elementos de una lista leída como literal
+     */
+    @Benchmark
+    public ElementoBase recorrer() {
+        return interprete.evaluar(recorrer);
+    }
+}
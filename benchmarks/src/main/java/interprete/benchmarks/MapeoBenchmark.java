@@ -0,0 +1,49 @@
+package interprete.benchmarks;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MAPEAR contra PMAPEAR aplicando una función costosa a cada elemento de una lista.
+ * La diferencia depende de la cantidad de núcleos disponibles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapeoBenchmark {
+
+    @Param({"MAPEAR", "PMAPEAR"})
+    private String primitiva;
+
+    private Interprete interprete;
+    private ElementoBase mapeo;
+
+    @Setup
+    public void preparar() {
+        interprete = new Interprete(new PrintStream(OutputStream.nullOutputStream()));
+        interprete.evaluar(interprete.leer(
+                "(DEF_FUNCION FIB (N) (SI (< N 2) N (+ (FIB (- N 1)) (FIB (- N 2)))))"));
+
+        StringBuilder sb = new StringBuilder("(").append(primitiva).append(" FIB '(");
+        for (int i = 0; i < 64; i++) {
+            sb.append(' ').append(15 + i % 4);
+        }
+        mapeo = interprete.leer(sb.append("))").toString());
+    }
+
+    /**
+     * FIB de 15 a 18 sobre una lista de 64 elementos
+     */
+    @Benchmark
+    public ElementoBase mapear() {
+        return interprete.evaluar(mapeo);
+    }
+}
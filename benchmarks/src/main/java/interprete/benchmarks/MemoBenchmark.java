@@ -0,0 +1,44 @@
+package interprete.benchmarks;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FIB 25 definida con DEF_FUNCION y con DEF_FUNCION_MEMO. La cache se vacía antes
+ * de cada llamada, así que se mide el cálculo y no una sola búsqueda.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoBenchmark {
+
+    @Param({"DEF_FUNCION", "DEF_FUNCION_MEMO"})
+    private String forma;
+
+    private Interprete interprete;
+    private ElementoBase llamada;
+    private ElementoBase limpiar;
+
+    @Setup
+    public void preparar() {
+        interprete = new Interprete(new PrintStream(OutputStream.nullOutputStream()));
+        interprete.evaluar(interprete.leer(
+                "(" + forma + " FIB (N) (SI (< N 2) N (+ (FIB (- N 1)) (FIB (- N 2)))))"));
+        llamada = interprete.leer("(FIB 25)");
+        limpiar = interprete.leer(forma.equals("DEF_FUNCION_MEMO") ? "(LIMPIAR_MEMO FIB)" : "0");
+    }
+
+    @Benchmark
+    public ElementoBase fib() {
+        interprete.evaluar(limpiar);
+        return interprete.evaluar(llamada);
+    }
+}
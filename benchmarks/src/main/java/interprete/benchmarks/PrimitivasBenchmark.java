@@ -0,0 +1,72 @@
+package interprete.benchmarks;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Enlace;
+import interprete.elementos.Entero;
+import interprete.elementos.Simbolo;
+import interprete.primitivas.FuncionAplicable;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cada primitiva aritmética y de comparación aplicada directamente a dos enteros,
+ * con la lista de argumentos genérica y con la entrada de dos argumentos que usa el evaluador
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitivasBenchmark {
+
+    @Param({"+", "-", "*", "/", "=", "<", ">"})
+    private String operador;
+
+    @Param({"pequenos", "grandes", "enormes"})
+    private String operandos;
+
+    private Interprete interprete;
+    private FuncionAplicable primitiva;
+    private ElementoBase argumentos;
+    private ElementoBase a;
+    private ElementoBase b;
+
+    @Setup
+    public void preparar() {
+        interprete = new Interprete(new PrintStream(OutputStream.nullOutputStream()));
+        primitiva = (FuncionAplicable) interprete.obtenerGlobal(Simbolo.simbolo(operador));
+
+        // Los pequeños caen en el rango de enteros compartidos; los grandes no,
+        // pero caben en un long; los enormes solo como BigInteger
+        switch (operandos) {
+            case "pequenos":
+                a = Entero.crear(12);
+                b = Entero.crear(5);
+                break;
+            case "grandes":
+                a = Entero.crear(1234567);
+                b = Entero.crear(8901);
+                break;
+            default:
+                a = Entero.crear(BigInteger.TEN.pow(30).add(BigInteger.valueOf(1234567)));
+                b = Entero.crear(BigInteger.TEN.pow(20).add(BigInteger.valueOf(8901)));
+        }
+        argumentos = new Enlace(a, new Enlace(b, Simbolo.VACIO));
+    }
+
+    @Benchmark
+    public ElementoBase aplicar() throws Exception {
+        return primitiva.aplicar(argumentos, interprete);
+    }
+
+    @Benchmark
+    public ElementoBase aplicarDos() throws Exception {
+        return primitiva.aplicar2(a, b, interprete);
+    }
+}
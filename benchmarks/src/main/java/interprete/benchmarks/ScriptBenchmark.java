@@ -0,0 +1,64 @@
+package interprete.benchmarks;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Entero;
+import interprete.elementos.Simbolo;
+import org.openjdk.jmh.annotations.*;
+
+import javax.script.*;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluación repetida de una regla con distintas entradas: leyendo y evaluando
+ * el texto cada vez, con ScriptEngine.eval, o con un CompiledScript
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScriptBenchmark {
+    private static final String REGLA =
+            "(SI (> (+ BASE (* TASA MONTO)) 100) (LISTA \"alto\" MONTO) (LISTA \"bajo\" MONTO))";
+
+    private Interprete interprete;
+    private ScriptEngine motor;
+    private CompiledScript compilado;
+    private Bindings vinculos;
+    private long monto;
+
+    @Setup
+    public void preparar() throws ScriptException {
+        interprete = new Interprete(new PrintStream(OutputStream.nullOutputStream()));
+        interprete.definirGlobal(Simbolo.simbolo("BASE"), Entero.crear(10));
+        interprete.definirGlobal(Simbolo.simbolo("TASA"), Entero.crear(3));
+
+        motor = new ScriptEngineManager().getEngineByName("lisp");
+        compilado = ((Compilable) motor).compile(REGLA);
+        vinculos = motor.createBindings();
+        vinculos.put("BASE", 10);
+        vinculos.put("TASA", 3);
+    }
+
+    @Benchmark
+    public ElementoBase leerYEvaluar() {
+        interprete.definirGlobal(Simbolo.simbolo("MONTO"), Entero.crear(monto++ & 63));
+        return interprete.evaluar(interprete.leer(REGLA));
+    }
+
+    @Benchmark
+    public Object evalTexto() throws ScriptException {
+        vinculos.put("MONTO", monto++ & 63);
+        return motor.eval(REGLA, vinculos);
+    }
+
+    @Benchmark
+    public Object evalCompilado() throws ScriptException {
+        vinculos.put("MONTO", monto++ & 63);
+        return compilado.eval(vinculos);
+    }
+}
@@ -0,0 +1,539 @@
+package interprete;
+
+import interprete.elementos.*;
+import interprete.evaluacion.Analizador;
+import interprete.evaluacion.FuncionMemorizada;
+import interprete.evaluacion.FuncionUsuario;
+import interprete.evaluacion.Marco;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+import interprete.primitivas.PrimitivasRegistro;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Formato binario de las vinculaciones de una ImagenGlobal.
+ *
+ * Cada elemento se escribe una sola vez: las siguientes apariciones son una referencia
+ * a su número de orden, así que se conserva la estructura compartida y los ciclos que
+ * pasan por vectores, tablas y marcos. Los átomos, listas y funciones se numeran después
+ * de sus partes, y los vectores, tablas y marcos antes, para que puedan contenerse a sí
+ * mismos; los contenedores alcanzables desde una lista o función se escriben antes que
+ * ella, para que un ciclo no la escriba dos veces. Las cadenas de enlaces se escriben elemento por elemento sin recursión. Las
+ * funciones de usuario se guardan con su definición sin analizar y se vuelven a analizar
+ * al leerlas; las primitivas, por nombre. Los enteros y cantidades usan longitud variable.
+ *
+ * Se lee en una sola pasada sobre el archivo mapeado en memoria.
+ */
+final class ArchivoImagen {
+    private static final int MAGIA = 0x4C495350;
+    private static final int VERSION = 1;
+
+    private static final byte REFERENCIA = 0;
+    private static final byte SIMBOLO = 1;
+    private static final byte ENTERO = 2;
+    private static final byte ENTERO_GRANDE = 3;
+    private static final byte TEXTO = 4;
+    private static final byte ENLACES = 5;
+    private static final byte FIN_ENLACES = 6;
+    private static final byte LISTA_ARREGLO = 7;
+    private static final byte VECTOR = 8;
+    private static final byte TABLA = 9;
+    private static final byte FUNCION = 10;
+    private static final byte FUNCION_MEMORIZADA = 11;
+    private static final byte MARCO = 12;
+    private static final byte NULO = 13;
+    private static final byte PRIMITIVA = 14;
+    // Un marco o contenedor que debe leerse antes del elemento que sigue; ver escribirLista
+    private static final byte PREVIO = 15;
+
+    private ArchivoImagen() {
+    }
+
+    /**
+     * Escribe las vinculaciones que no son la primitiva original de su nombre
+     * @throws IOException si falla la escritura o algún valor no puede guardarse
+     */
+    static void guardar(Map<Simbolo, ElementoBase> vinculaciones, Path ruta) throws IOException {
+        try (OutputStream salida = new BufferedOutputStream(Files.newOutputStream(ruta))) {
+            new Escritor(salida).escribir(vinculaciones);
+        }
+    }
+
+    /**
+     * Lee las vinculaciones de un archivo
+     * @param imagen Imagen nueva, de donde se toman las primitivas por nombre
+     * @throws IOException si el archivo no se puede leer o no es una imagen válida
+     */
+    static Map<Simbolo, ElementoBase> cargar(Path ruta, ImagenGlobal imagen) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            MappedByteBuffer contenido = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            return new Lector(contenido, imagen).leer();
+        } catch (BufferUnderflowException | ClassCastException | IndexOutOfBoundsException e) {
+            throw new IOException("Imagen inválida o incompleta: " + ruta, e);
+        }
+    }
+
+    static boolean esPrimitivaOriginal(Simbolo nombre, ElementoBase valor) {
+        return valor instanceof PrimitivasRegistro.Primitiva
+                && ((PrimitivasRegistro.Primitiva) valor).getNombre() == nombre;
+    }
+
+    private static final class Escritor {
+        private final OutputStream salida;
+        private final Map<Object, Integer> numeros = new IdentityHashMap<>();
+        // Se están escribiendo las partes de una lista cuyos contenedores ya se escribieron
+        private boolean partesEscritas;
+
+        Escritor(OutputStream salida) {
+            this.salida = salida;
+        }
+
+        void escribir(Map<Simbolo, ElementoBase> vinculaciones) throws IOException {
+            List<Map.Entry<Simbolo, ElementoBase>> guardadas = new ArrayList<>();
+            for (Map.Entry<Simbolo, ElementoBase> vinculacion : vinculaciones.entrySet()) {
+                if (!esPrimitivaOriginal(vinculacion.getKey(), vinculacion.getValue())) {
+                    guardadas.add(vinculacion);
+                }
+            }
+
+            entero32(MAGIA);
+            entero32(VERSION);
+            natural(guardadas.size());
+            for (Map.Entry<Simbolo, ElementoBase> vinculacion : guardadas) {
+                escribir(vinculacion.getKey());
+                escribir(vinculacion.getValue());
+            }
+        }
+
+        private void escribir(ElementoBase elemento) throws IOException {
+            if (elemento == null) {
+                salida.write(NULO);
+                return;
+            }
+            if (referencia(elemento)) {
+                return;
+            }
+
+            if (elemento instanceof Simbolo) {
+                salida.write(SIMBOLO);
+                texto(((Simbolo) elemento).getNombre());
+                numerar(elemento);
+            } else if (elemento instanceof Entero) {
+                Entero entero = (Entero) elemento;
+                if (entero.esGrande()) {
+                    byte[] bytes = entero.valorGrande().toByteArray();
+                    salida.write(ENTERO_GRANDE);
+                    natural(bytes.length);
+                    salida.write(bytes);
+                } else {
+                    salida.write(ENTERO);
+                    long valor = entero.valor();
+                    natural((valor << 1) ^ (valor >> 63));
+                }
+                numerar(elemento);
+            } else if (elemento instanceof Texto) {
+                salida.write(TEXTO);
+                texto(((Texto) elemento).valor());
+                numerar(elemento);
+            } else if (elemento instanceof Enlace || elemento instanceof ListaArreglo) {
+                escribirLista(elemento);
+            } else if (elemento instanceof Arreglo) {
+                Arreglo vector = (Arreglo) elemento;
+                salida.write(VECTOR);
+                numerar(elemento);
+                natural(vector.longitud());
+                for (ElementoBase valor : vector) {
+                    escribir(valor);
+                }
+            } else if (elemento instanceof TablaHash) {
+                TablaHash tabla = (TablaHash) elemento;
+                salida.write(TABLA);
+                numerar(elemento);
+                natural(tabla.longitud());
+                for (Map.Entry<ElementoBase, ElementoBase> entrada : tabla.entradas()) {
+                    escribir(entrada.getKey());
+                    escribir(entrada.getValue());
+                }
+            } else if (elemento instanceof FuncionUsuario) {
+                escribirFuncion((FuncionUsuario) elemento);
+            } else if (elemento instanceof PrimitivasRegistro.Primitiva) {
+                salida.write(PRIMITIVA);
+                texto(((PrimitivasRegistro.Primitiva) elemento).getNombre().getNombre());
+                numerar(elemento);
+            } else {
+                throw new IOException("No se puede guardar en la imagen: " + elemento.getClass().getSimpleName());
+            }
+        }
+
+        /**
+         * Una lista se numera después de sus partes, pero puede volver a alcanzarse desde
+         * ellas a través de un vector, una tabla o una función. Por eso esos contenedores
+         * se escriben antes que ella: si al escribirlos se escribió también la lista, basta
+         * con una referencia, y si no, sus partes ya no pueden llevar de vuelta a ella.
+         */
+        private void escribirLista(ElementoBase lista) throws IOException {
+            if (partesEscritas) {
+                escribirPartes(lista);
+                return;
+            }
+            escribirContenedores(lista);
+            if (referencia(lista)) {
+                return;
+            }
+            // Las listas anidadas no tienen contenedores sin escribir
+            partesEscritas = true;
+            try {
+                escribirPartes(lista);
+            } finally {
+                partesEscritas = false;
+            }
+        }
+
+        private void escribirPartes(ElementoBase elemento) throws IOException {
+            if (elemento instanceof Enlace) {
+                escribirEnlaces((Enlace) elemento);
+                return;
+            }
+            ListaArreglo lista = (ListaArreglo) elemento;
+            salida.write(LISTA_ARREGLO);
+            natural(lista.longitud());
+            Iterator<ElementoBase> elementos = lista.iterator();
+            for (int i = 0; i < lista.longitud(); i++) {
+                escribir(elementos.next());
+            }
+            escribir(lista.cola());
+            numerar(lista);
+        }
+
+        /**
+         * Escribe como previos los vectores, tablas y funciones sin escribir que se
+         * alcanzan desde el elemento pasando solo por listas
+         */
+        private void escribirContenedores(ElementoBase elemento) throws IOException {
+            Set<ElementoBase> vistos = Collections.newSetFromMap(new IdentityHashMap<>());
+            Deque<ElementoBase> pendientes = new ArrayDeque<>();
+            pendientes.push(elemento);
+            while (!pendientes.isEmpty()) {
+                ElementoBase actual = pendientes.pop();
+                if (numeros.containsKey(actual) || !vistos.add(actual)) {
+                    continue;
+                }
+                if (actual instanceof Enlace) {
+                    pendientes.push(((Enlace) actual).resto());
+                    pendientes.push(((Enlace) actual).primero());
+                } else if (actual instanceof ListaArreglo) {
+                    ListaArreglo lista = (ListaArreglo) actual;
+                    pendientes.push(lista.cola());
+                    Iterator<ElementoBase> elementos = lista.iterator();
+                    for (int i = 0; i < lista.longitud(); i++) {
+                        pendientes.push(elementos.next());
+                    }
+                } else if (actual instanceof Arreglo || actual instanceof TablaHash
+                        || actual instanceof FuncionUsuario) {
+                    // Escribir un contenedor puede escribir también el siguiente
+                    salida.write(PREVIO);
+                    escribir(actual);
+                }
+            }
+        }
+
+        /**
+         * Escribe los elementos de la cadena hasta el primer resto que no es un enlace
+         * o que ya se escribió, y después ese resto
+         */
+        private void escribirEnlaces(Enlace lista) throws IOException {
+            salida.write(ENLACES);
+            List<Enlace> enlaces = new ArrayList<>();
+            ElementoBase actual = lista;
+            // Escribir un elemento puede escribir también un resto de esta misma cadena
+            while (actual instanceof Enlace && !numeros.containsKey(actual)) {
+                Enlace enlace = (Enlace) actual;
+                enlaces.add(enlace);
+                escribir(enlace.primero());
+                actual = enlace.resto();
+            }
+            salida.write(FIN_ENLACES);
+            escribir(actual);
+
+            // Se numeran desde el último, que es el primero que se construye al leer
+            for (int i = enlaces.size() - 1; i >= 0; i--) {
+                numerar(enlaces.get(i));
+            }
+        }
+
+        /**
+         * El marco de la función puede contenerla (una función local recursiva), igual
+         * que los contenedores de su definición, así que se escriben antes que ella; si
+         * al escribirlos se escribió también la función, basta con una referencia
+         */
+        private void escribirFuncion(FuncionUsuario funcion) throws IOException {
+            Marco marco = funcion.getMarcoPadre();
+            if (marco != null && !numeros.containsKey(marco)) {
+                salida.write(PREVIO);
+                escribirMarco(marco);
+            }
+            escribirContenedores(funcion.getDefinicion());
+            if (referencia(funcion)) {
+                return;
+            }
+
+            boolean memorizada = funcion instanceof FuncionMemorizada;
+            salida.write(memorizada ? FUNCION_MEMORIZADA : FUNCION);
+            escribirMarco(marco);
+            escribir(funcion.getNombre());
+            escribir(funcion.getDefinicion());
+            if (memorizada) {
+                FuncionMemorizada memo = (FuncionMemorizada) funcion;
+                natural(memo.getCapacidad());
+                salida.write(memo.esLru() ? 1 : 0);
+            }
+            numerar(funcion);
+        }
+
+        private void escribirMarco(Marco marco) throws IOException {
+            if (marco == null) {
+                salida.write(NULO);
+                return;
+            }
+            if (referencia(marco)) {
+                return;
+            }
+
+            salida.write(MARCO);
+            escribirMarco(marco.getPadre());
+            Simbolo[] nombres = marco.getNombres();
+            natural(nombres.length);
+            for (Simbolo nombre : nombres) {
+                escribir(nombre);
+            }
+            numerar(marco);
+            for (int i = 0; i < nombres.length; i++) {
+                escribir(marco.obtener(0, i));
+            }
+        }
+
+        private boolean referencia(Object objeto) throws IOException {
+            Integer numero = numeros.get(objeto);
+            if (numero == null) {
+                return false;
+            }
+            salida.write(REFERENCIA);
+            natural(numero);
+            return true;
+        }
+
+        private void numerar(Object objeto) {
+            numeros.put(objeto, numeros.size());
+        }
+
+        private void texto(String texto) throws IOException {
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            natural(bytes.length);
+            salida.write(bytes);
+        }
+
+        /**
+         * Entero no negativo en grupos de siete bits, el menos significativo primero
+         */
+        private void natural(long valor) throws IOException {
+            while ((valor & ~0x7FL) != 0) {
+                salida.write((int) (valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            salida.write((int) valor);
+        }
+
+        private void entero32(int valor) throws IOException {
+            salida.write(valor >>> 24);
+            salida.write(valor >>> 16);
+            salida.write(valor >>> 8);
+            salida.write(valor);
+        }
+    }
+
+    private static final class Lector {
+        private final MappedByteBuffer contenido;
+        private final ImagenGlobal imagen;
+        private final Analizador analizador = new Analizador();
+        private final List<Object> objetos = new ArrayList<>();
+
+        Lector(MappedByteBuffer contenido, ImagenGlobal imagen) {
+            this.contenido = contenido;
+            this.imagen = imagen;
+        }
+
+        Map<Simbolo, ElementoBase> leer() throws IOException {
+            if (contenido.getInt() != MAGIA) {
+                throw new IOException("El archivo no es una imagen");
+            }
+            int version = contenido.getInt();
+            if (version != VERSION) {
+                throw new IOException("Versión de imagen no admitida: " + version);
+            }
+
+            int cantidad = (int) natural();
+            Map<Simbolo, ElementoBase> vinculaciones = new HashMap<>();
+            for (int i = 0; i < cantidad; i++) {
+                Simbolo nombre = (Simbolo) leerElemento();
+                vinculaciones.put(nombre, leerElemento());
+            }
+            return vinculaciones;
+        }
+
+        private ElementoBase leerElemento() throws IOException {
+            return (ElementoBase) leer(contenido.get());
+        }
+
+        private Object leer(byte etiqueta) throws IOException {
+            switch (etiqueta) {
+                case REFERENCIA:
+                    return objetos.get((int) natural());
+                case NULO:
+                    return null;
+                case PREVIO: {
+                    // Una lista puede tener muchos previos seguidos
+                    byte siguiente;
+                    do {
+                        leer(contenido.get());
+                    } while ((siguiente = contenido.get()) == PREVIO);
+                    return leer(siguiente);
+                }
+                case SIMBOLO:
+                    return numerar(Simbolo.simbolo(texto()));
+                case ENTERO: {
+                    long codificado = natural();
+                    return numerar(Entero.crear((codificado >>> 1) ^ -(codificado & 1)));
+                }
+                case ENTERO_GRANDE: {
+                    byte[] bytes = new byte[(int) natural()];
+                    contenido.get(bytes);
+                    return numerar(Entero.crear(new BigInteger(bytes)));
+                }
+                case TEXTO:
+                    return numerar(Texto.crear(texto()));
+                case ENLACES:
+                    return leerEnlaces();
+                case LISTA_ARREGLO: {
+                    ElementoBase[] elementos = new ElementoBase[(int) natural()];
+                    for (int i = 0; i < elementos.length; i++) {
+                        elementos[i] = leerElemento();
+                    }
+                    ElementoBase cola = leerElemento();
+                    return numerar(ListaArreglo.crear(elementos, elementos.length, cola));
+                }
+                case VECTOR: {
+                    Arreglo vector = numerar(new Arreglo());
+                    long longitud = natural();
+                    for (long i = 0; i < longitud; i++) {
+                        vector.agregar(leerElemento());
+                    }
+                    return vector;
+                }
+                case TABLA: {
+                    TablaHash tabla = numerar(new TablaHash());
+                    long longitud = natural();
+                    for (long i = 0; i < longitud; i++) {
+                        ElementoBase clave = leerElemento();
+                        tabla.guardar(clave, leerElemento());
+                    }
+                    return tabla;
+                }
+                case FUNCION:
+                case FUNCION_MEMORIZADA:
+                    return leerFuncion(etiqueta == FUNCION_MEMORIZADA);
+                case MARCO:
+                    return leerMarco();
+                case PRIMITIVA: {
+                    String nombre = texto();
+                    ElementoBase primitiva = imagen.obtener(Simbolo.simbolo(nombre));
+                    if (!esPrimitivaOriginal(Simbolo.simbolo(nombre), primitiva)) {
+                        throw new IOException("Primitiva desconocida en la imagen: " + nombre);
+                    }
+                    return numerar(primitiva);
+                }
+                default:
+                    throw new IOException("Imagen inválida: etiqueta " + etiqueta);
+            }
+        }
+
+        private ElementoBase leerEnlaces() throws IOException {
+            List<ElementoBase> elementos = new ArrayList<>();
+            byte etiqueta;
+            while ((etiqueta = contenido.get()) != FIN_ENLACES) {
+                elementos.add((ElementoBase) leer(etiqueta));
+            }
+
+            ElementoBase lista = leerElemento();
+            for (int i = elementos.size() - 1; i >= 0; i--) {
+                lista = numerar(new Enlace(elementos.get(i), lista));
+            }
+            return lista;
+        }
+
+        private FuncionUsuario leerFuncion(boolean memorizada) throws IOException {
+            Marco marco = (Marco) leer(contenido.get());
+            Simbolo nombre = (Simbolo) leerElemento();
+            ElementoBase definicion = leerElemento();
+
+            FuncionUsuario funcion;
+            try {
+                funcion = analizador.restaurarFuncion(nombre, definicion, memorizada, marco);
+            } catch (ArgumentoInvalidoExcepcion e) {
+                throw new IOException("Definición inválida de " + nombre + " en la imagen: " + e.getMessage(), e);
+            }
+            if (memorizada) {
+                int capacidad = (int) natural();
+                ((FuncionMemorizada) funcion).configurar(capacidad, contenido.get() != 0);
+            }
+            return numerar(funcion);
+        }
+
+        private Marco leerMarco() throws IOException {
+            Marco padre = (Marco) leer(contenido.get());
+            Simbolo[] nombres = new Simbolo[(int) natural()];
+            for (int i = 0; i < nombres.length; i++) {
+                nombres[i] = (Simbolo) leerElemento();
+            }
+
+            Marco marco = numerar(new Marco(nombres, padre));
+            for (int i = 0; i < nombres.length; i++) {
+                marco.fijar(i, leerElemento());
+            }
+            return marco;
+        }
+
+        private <T> T numerar(T objeto) {
+            objetos.add(objeto);
+            return objeto;
+        }
+
+        private String texto() {
+            byte[] bytes = new byte[(int) natural()];
+            contenido.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private long natural() {
+            long valor = 0;
+            int desplazamiento = 0;
+            byte b;
+            do {
+                b = contenido.get();
+                valor |= (long) (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while ((b & 0x80) != 0);
+            return valor;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package interprete;
+
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Simbolo;
+import interprete.primitivas.PrimitivasRegistro;
+import interprete.util.MapaPersistente;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ambiente global que pueden compartir varios intérpretes, cada uno en su hilo.
+ * El contenido publicado es un MapaPersistente que nunca se modifica: cada
+ * publicación crea uno nuevo y lo reemplaza atómicamente, así que leerlo no
+ * requiere sincronización. Cada intérprete vincula en su propio ambiente, por
+ * encima de la imagen, hasta que publica esas vinculaciones.
+ */
+public final class ImagenGlobal {
+    private final AtomicReference<Estado> estado;
+
+    /**
+     * Crea una imagen con todas las primitivas
+     */
+    public ImagenGlobal() {
+        Map<Simbolo, ElementoBase> primitivas = new HashMap<>();
+        new PrimitivasRegistro().registrarTodasLasPrimitivas(primitivas);
+
+        MapaPersistente<Simbolo, ElementoBase> mapa = MapaPersistente.vacio();
+        for (Map.Entry<Simbolo, ElementoBase> entrada : primitivas.entrySet()) {
+            mapa = mapa.con(entrada.getKey(), entrada.getValue());
+        }
+        this.estado = new AtomicReference<>(new Estado(mapa, 0));
+    }
+
+    /**
+     * Valor publicado de una variable
+     * @return El valor vinculado, o null si la variable no está publicada
+     */
+    public ElementoBase obtener(Simbolo nombre) {
+        return estado.get().mapa.obtener(nombre);
+    }
+
+    /**
+     * Versión de la imagen; aumenta con cada publicación
+     */
+    public long getVersion() {
+        return estado.get().version;
+    }
+
+    /**
+     * Guarda en un archivo binario todo lo publicado salvo las primitivas, que una
+     * imagen nueva ya tiene. Las funciones de usuario se guardan con su definición, su
+     * ambiente y, si son memorizadas, la configuración de su cache pero no sus resultados.
+     * @throws IOException si falla la escritura o hay valores que no pueden guardarse
+     */
+    public void guardar(Path ruta) throws IOException {
+        Map<Simbolo, ElementoBase> vinculaciones = new HashMap<>();
+        estado.get().mapa.recorrer(vinculaciones::put);
+        ArchivoImagen.guardar(vinculaciones, ruta);
+    }
+
+    /**
+     * Crea una imagen con las primitivas y lo guardado en el archivo, publicado en una
+     * sola versión. Es más rápido que volver a evaluar el código que lo definió.
+     * @throws IOException si el archivo no se puede leer o no es una imagen válida
+     */
+    public static ImagenGlobal cargar(Path ruta) throws IOException {
+        ImagenGlobal imagen = new ImagenGlobal();
+        imagen.publicar(ArchivoImagen.cargar(ruta, imagen));
+        return imagen;
+    }
+
+    Estado getEstado() {
+        return estado.get();
+    }
+
+    /**
+     * Agrega las vinculaciones a lo publicado. Si otro hilo publica a la vez, se
+     * reintenta sobre su resultado, de modo que no se pierde ninguna publicación;
+     * si ambos vinculan la misma variable queda la del último.
+     * @return El estado que incluye las vinculaciones
+     */
+    Estado publicar(Map<Simbolo, ElementoBase> vinculaciones) {
+        while (true) {
+            Estado actual = estado.get();
+            MapaPersistente<Simbolo, ElementoBase> mapa = actual.mapa;
+            for (Map.Entry<Simbolo, ElementoBase> entrada : vinculaciones.entrySet()) {
+                mapa = mapa.con(entrada.getKey(), entrada.getValue());
+            }
+            Estado nuevo = new Estado(mapa, actual.version + 1);
+            if (estado.compareAndSet(actual, nuevo)) {
+                return nuevo;
+            }
+        }
+    }
+
+    /**
+     * Contenido publicado y su versión, que se leen juntos
+     */
+    static final class Estado {
+        final MapaPersistente<Simbolo, ElementoBase> mapa;
+        final long version;
+
+        Estado(MapaPersistente<Simbolo, ElementoBase> mapa, long version) {
+            this.mapa = mapa;
+            this.version = version;
+        }
+    }
+}
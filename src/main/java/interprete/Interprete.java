@@ -1,22 +1,56 @@
 package interprete;
 
 import interprete.elementos.*;
+import interprete.evaluacion.Analizador;
+import interprete.evaluacion.Nodo;
 import interprete.excepciones.*;
 import interprete.util.LectorEvaluador;
-import interprete.primitivas.FuncionAplicable;
-import interprete.primitivas.PrimitivasRegistro;
+import interprete.util.LectorFlujo;
+import interprete.util.LectorMapeado;
+import interprete.util.MapaPersistente;
 
 import java.io.*;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
- * Clase principal del intérprete que gestiona la evaluación de expresiones
+ * Clase principal del intérprete que gestiona la evaluación de expresiones.
+ * Las variables globales se leen de una ImagenGlobal, que puede ser propia o
+ * compartida con intérpretes de otros hilos, y de las vinculaciones propias que
+ * este intérprete hizo y todavía no publicó en ella.
  */
 public class Interprete {
-    private Map<Simbolo, ElementoBase> ambiente;
-    private PrimitivasRegistro registroPrimitivas;
+    /**
+     * Profundidad máxima predeterminada; cabe en la pila de 1 MB que usa la JVM por omisión
+     */
+    public static final int PROFUNDIDAD_MAXIMA_PREDETERMINADA = 1000;
+
+    /**
+     * Llamadas tras las cuales se intenta compilar una función de usuario a bytecode
+     */
+    public static final int UMBRAL_COMPILACION_PREDETERMINADO = 1000;
+
+    private final ImagenGlobal imagen;
+    private MapaPersistente<Simbolo, ElementoBase> base;
+    private long versionBase;
+    private final Map<Simbolo, ElementoBase> propias;
+    private final boolean publicarAlTerminar;
     private LectorEvaluador lector;
+    private Analizador analizador;
     private PrintStream salida;
+    private int profundidadMaxima;
+    private long presupuestoPasos;
+    private int profundidad;
+    // Profundidad mayor de la evaluación en curso, para informar si aun así se agotó la pila
+    private int profundidadAlcanzada;
+    private long pasosRestantes;
+    private boolean evaluando;
+    private long versionGlobal;
+    private long versionesPropias;
+    private int umbralCompilacion;
+    private boolean compilacionSuspendida;
+    private final Interprete padre;
+    private Object propietarioGlobal;
 
     /**
      * Constructor. Inicializa el intérprete con el ambiente global vacío
@@ -26,17 +60,99 @@ public class Interprete {
     }
 
     /**
-     * Constructor con flujo de salida personalizable
+     * Constructor con flujo de salida personalizable.
+     * Los límites se toman de las propiedades del sistema interprete.profundidadMaxima
+     * e interprete.presupuestoPasos, si están definidas.
      * @param flujoSalida Flujo donde se imprimirán los resultados
      */
     public Interprete(PrintStream flujoSalida) {
-        this.ambiente = new HashMap<>();
-        this.registroPrimitivas = new PrimitivasRegistro(this);
-        this.lector = new LectorEvaluador();
+        this(flujoSalida,
+                Integer.getInteger("interprete.profundidadMaxima", PROFUNDIDAD_MAXIMA_PREDETERMINADA),
+                Long.getLong("interprete.presupuestoPasos", 0));
+    }
+
+    /**
+     * Constructor con límites de ejecución. El intérprete tiene su propia imagen y
+     * publica en ella lo que vincula al terminar cada evaluación de nivel superior.
+     * @param flujoSalida Flujo donde se imprimirán los resultados
+     * @param profundidadMaxima Cantidad máxima de llamadas a funciones de usuario anidadas; 0 o
+     *                          menos no pone otro límite que la pila del hilo
+     * @param presupuestoPasos Cantidad máxima de llamadas por cada evaluar; 0 o menos no pone límite
+     */
+    public Interprete(PrintStream flujoSalida, int profundidadMaxima, long presupuestoPasos) {
+        this(new ImagenGlobal(), flujoSalida, profundidadMaxima, presupuestoPasos, true);
+    }
+
+    /**
+     * Constructor de un intérprete que comparte una imagen, con los límites de las
+     * propiedades del sistema. Ver el constructor con límites.
+     */
+    public Interprete(ImagenGlobal imagen, PrintStream flujoSalida) {
+        this(imagen, flujoSalida,
+                Integer.getInteger("interprete.profundidadMaxima", PROFUNDIDAD_MAXIMA_PREDETERMINADA),
+                Long.getLong("interprete.presupuestoPasos", 0));
+    }
+
+    /**
+     * Constructor de un intérprete que comparte una imagen con otros, cada uno en su
+     * hilo. Al comenzar cada evaluación de nivel superior toma lo último publicado
+     * en la imagen; lo que vincula queda en su propio ambiente hasta llamar a publicar.
+     * @param imagen Imagen con las variables globales compartidas
+     * @param flujoSalida Flujo donde se imprimirán los resultados
+     * @param profundidadMaxima Cantidad máxima de llamadas a funciones de usuario anidadas; 0 o
+     *                          menos no pone otro límite que la pila del hilo
+     * @param presupuestoPasos Cantidad máxima de llamadas por cada evaluar; 0 o menos no pone límite
+     */
+    public Interprete(ImagenGlobal imagen, PrintStream flujoSalida, int profundidadMaxima, long presupuestoPasos) {
+        this(imagen, flujoSalida, profundidadMaxima, presupuestoPasos, false);
+    }
+
+    private Interprete(ImagenGlobal imagen, PrintStream flujoSalida, int profundidadMaxima, long presupuestoPasos,
+                       boolean publicarAlTerminar) {
+        this.profundidadMaxima = profundidadMaxima > 0 ? profundidadMaxima : Integer.MAX_VALUE;
+        this.presupuestoPasos = presupuestoPasos;
+        this.umbralCompilacion = Integer.getInteger("interprete.umbralCompilacion", UMBRAL_COMPILACION_PREDETERMINADO);
+        this.imagen = imagen;
+        this.propias = new HashMap<>();
+        this.publicarAlTerminar = publicarAlTerminar;
+        this.lector = new LectorEvaluador(Integer.getInteger("interprete.cacheLectura", 0));
+        this.analizador = new Analizador();
         this.salida = flujoSalida;
+        this.padre = null;
+        actualizarBase();
+    }
 
-        // Registrar todas las primitivas en el ambiente global
-        registroPrimitivas.registrarTodasLasPrimitivas(ambiente);
+    /**
+     * Constructor de un intérprete derivado; ver derivar
+     */
+    private Interprete(Interprete padre) {
+        this.padre = padre;
+        this.profundidadMaxima = padre.profundidadMaxima;
+        this.presupuestoPasos = padre.presupuestoPasos;
+        this.umbralCompilacion = padre.umbralCompilacion;
+        this.compilacionSuspendida = padre.compilacionSuspendida;
+        this.imagen = padre.imagen;
+        this.propias = new HashMap<>();
+        this.publicarAlTerminar = false;
+        this.lector = new LectorEvaluador();
+        this.analizador = padre.analizador;
+        this.salida = padre.salida;
+        this.profundidad = padre.profundidad;
+        this.pasosRestantes = padre.pasosRestantes;
+        this.evaluando = true;
+        this.propietarioGlobal = padre.propietarioGlobal;
+        this.versionGlobal = padre.getVersionGlobal();
+    }
+
+    /**
+     * Crea un intérprete para ejecutar en otro hilo mientras este espera, como hacen
+     * las primitivas paralelas. Ve las variables globales de este intérprete y parte de
+     * su profundidad de llamadas, pero lleva sus propios contadores; lo que vincule
+     * queda en su propio ambiente, no se ve desde este y no se publica.
+     * Este intérprete no debe modificar su ambiente mientras se usen sus derivados.
+     */
+    public Interprete derivar() {
+        return new Interprete(this);
     }
 
     /**
@@ -46,6 +162,45 @@ public class Interprete {
         return lector.leer(expresion);
     }
 
+    /**
+     * Lee y evalúa una a una las expresiones de un flujo de caracteres.
+     * Cada forma se evalúa en cuanto termina de leerse.
+     * @param entrada El flujo con el código fuente
+     * @return El resultado de la última expresión, o VACIO si no había ninguna
+     * @throws IOException si falla la lectura del flujo
+     */
+    public ElementoBase evaluarFlujo(Reader entrada) throws IOException {
+        LectorFlujo lectorFlujo = new LectorFlujo(entrada);
+        ElementoBase resultado = Simbolo.VACIO;
+        ElementoBase expresion;
+
+        while ((expresion = lectorFlujo.siguiente()) != null) {
+            resultado = evaluar(expresion);
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Carga un archivo de código fuente mapeándolo en memoria y evalúa sus expresiones.
+     * Se detiene en la primera que falla, sin evaluar las siguientes.
+     * @param ruta El archivo a cargar, en UTF-8
+     * @return El resultado de la última expresión, o VACIO si no había ninguna
+     * @throws IOException si el archivo no se puede abrir
+     * @throws ArgumentoInvalidoExcepcion el error de la primera expresión que falla
+     */
+    public ElementoBase cargar(Path ruta) throws IOException, ArgumentoInvalidoExcepcion {
+        LectorMapeado lectorArchivo = LectorMapeado.abrir(ruta);
+        ElementoBase resultado = Simbolo.VACIO;
+        ElementoBase expresion;
+
+        while ((expresion = lectorArchivo.siguiente()) != null) {
+            resultado = ejecutar(analizador.analizar(expresion));
+        }
+
+        return resultado;
+    }
+
     /**
      * Evalúa una expresión en el contexto del ambiente actual
      * @param expresion La expresión a evaluar
@@ -53,7 +208,7 @@ public class Interprete {
      */
     public ElementoBase evaluar(ElementoBase expresion) {
         try {
-            return evaluarInterno(expresion, ambiente);
+            return ejecutar(analizador.analizar(expresion));
         } catch (ArgumentoInvalidoExcepcion e) {
             System.err.println("Error: " + e.getMessage());
             return Simbolo.simbolo("ERROR");
@@ -61,170 +216,237 @@ public class Interprete {
     }
 
     /**
-     * Método interno para evaluación recursiva de expresiones
+     * Ejecuta una expresión ya analizada por un Analizador; el mismo nodo puede
+     * ejecutarse muchas veces y con distintos intérpretes. A diferencia de evaluar,
+     * los errores se propagan en lugar de imprimirse.
+     * @return El resultado de la evaluación
+     * @throws ArgumentoInvalidoExcepcion si la evaluación falla
+     * @throws LimiteRecursionExcedidoException también si se agota la pila del hilo antes de
+     *                                          llegar a la profundidad máxima
      */
-    private ElementoBase evaluarInterno(ElementoBase expresion, Map<Simbolo, ElementoBase> ambienteActual)
-            throws ArgumentoInvalidoExcepcion {
-
-        // Si es un átomo
-        if (expresion.esAtomico()) {
-            // Si es un símbolo, buscar su valor en el ambiente
-            if (expresion.esSimbolo()) {
-                Simbolo simbolo = (Simbolo) expresion;
-
-                // Casos especiales: nil, t
-                if (simbolo == Simbolo.VACIO || simbolo == Simbolo.VERDADERO) {
-                    return simbolo;
-                }
+    public ElementoBase ejecutar(Nodo nodo) throws ArgumentoInvalidoExcepcion {
+        // Los contadores se reinician solo en la evaluación de nivel superior
+        boolean nivelSuperior = !evaluando;
+        if (nivelSuperior) {
+            evaluando = true;
+            profundidad = 0;
+            profundidadAlcanzada = 0;
+            pasosRestantes = presupuestoPasos > 0 ? presupuestoPasos : Long.MAX_VALUE;
+            actualizarBase();
+        }
 
-                // Buscar en el ambiente
-                ElementoBase valor = ambienteActual.get(simbolo);
-                if (valor == null) {
-                    throw new VariableNoDefinidaException("Variable no definida: " + simbolo);
+        try {
+            return nodo.ejecutar(this, null);
+        } catch (StackOverflowError e) {
+            // Último recurso, para una pila más chica de lo que supone la profundidad máxima;
+            // solo aquí, donde ya se liberó toda la pila de la evaluación
+            if (!nivelSuperior) {
+                throw e;
+            }
+            throw new LimiteRecursionExcedidoException(
+                    "Límite de recursión excedido: se agotó la pila con " + profundidadAlcanzada
+                            + " llamadas anidadas", profundidadAlcanzada);
+        } finally {
+            if (nivelSuperior) {
+                evaluando = false;
+                if (publicarAlTerminar) {
+                    publicar();
                 }
-                return valor;
             }
-            // Si es un literal (número, texto), devolver tal cual
-            return expresion;
         }
+    }
 
-        // Si no es una lista vacía, evaluar como una expresión compuesta
-        if (expresion != Simbolo.VACIO) {
-            ElementoBase operador = expresion.primero();
-            ElementoBase args = expresion.resto();
+    /**
+     * Registra la entrada a una llamada de función de usuario
+     * @throws LimiteRecursionExcedidoException si se supera la profundidad máxima
+     */
+    public void entrarLlamada() throws LimiteRecursionExcedidoException {
+        if (profundidad >= profundidadMaxima) {
+            throw new LimiteRecursionExcedidoException(
+                    "Límite de recursión excedido: " + profundidadMaxima + " llamadas anidadas",
+                    profundidad + 1);
+        }
+        if (++profundidad > profundidadAlcanzada) {
+            profundidadAlcanzada = profundidad;
+        }
+    }
 
-            // Evaluar formas especiales
-            if (operador.esSimbolo()) {
-                Simbolo simbolo = (Simbolo) operador;
+    /**
+     * Verifica que quepan más llamadas anidadas sobre las ya registradas, sin
+     * registrarlas. La usa el código compilado, que no pasa por entrarLlamada.
+     * @param adicionales Llamadas anidadas por encima de la profundidad actual
+     * @throws LimiteRecursionExcedidoException si se superaría la profundidad máxima
+     */
+    public void verificarProfundidad(int adicionales) throws LimiteRecursionExcedidoException {
+        if (profundidad + adicionales > profundidadMaxima) {
+            throw new LimiteRecursionExcedidoException(
+                    "Límite de recursión excedido: " + profundidadMaxima + " llamadas anidadas",
+                    profundidad + adicionales);
+        }
+        if (profundidad + adicionales > profundidadAlcanzada) {
+            profundidadAlcanzada = profundidad + adicionales;
+        }
+    }
 
-                // SI (condicional)
-                if (simbolo == Simbolo.SI) {
-                    return evaluarSi(args, ambienteActual);
-                }
+    /**
+     * Registra la salida de una llamada iniciada con entrarLlamada
+     */
+    public void salirLlamada() {
+        profundidad--;
+    }
 
-                // ASIGNAR (definición de variable)
-                else if (simbolo == Simbolo.ASIGNAR) {
-                    return evaluarAsignar(args, ambienteActual);
-                }
+    /**
+     * Descuenta un paso del presupuesto de la evaluación en curso
+     * @throws PresupuestoAgotadoException si ya no quedan pasos
+     */
+    public void consumirPaso() throws PresupuestoAgotadoException {
+        if (--pasosRestantes < 0) {
+            throw new PresupuestoAgotadoException(
+                    "Presupuesto de pasos agotado: " + presupuestoPasos + " llamadas", presupuestoPasos);
+        }
+    }
 
-                // DEF_FUNCION (definición de función)
-                else if (simbolo == Simbolo.DEF_FUNCION) {
-                    return evaluarDefinirFuncion(args, ambienteActual);
-                }
+    /**
+     * Cantidad de llamadas tras la cual se compila una función de usuario.
+     * Se toma de la propiedad del sistema interprete.umbralCompilacion; 0 o menos
+     * desactiva la compilación, que tampoco se usa con un presupuesto de pasos
+     * porque el código compilado no los cuenta, ni mientras esté suspendida.
+     */
+    public int getUmbralCompilacion() {
+        return presupuestoPasos > 0 || compilacionSuspendida ? 0 : umbralCompilacion;
+    }
 
-                // CITAR (quote)
-                else if (simbolo == Simbolo.CITAR) {
-                    if (args == Simbolo.VACIO || args.resto() != Simbolo.VACIO) {
-                        throw new ArgumentoInvalidoExcepcion("QUOTE requiere exactamente un argumento");
-                    }
-                    return args.primero();
-                }
-            }
+    /**
+     * Suspende o reanuda el uso de código compilado. Una llamada cuyo código compilado
+     * se desbordó la suspende mientras se repite interpretada, para que las llamadas
+     * anidadas no vuelvan a ejecutar su código compilado hasta desbordarse otra vez.
+     */
+    public void suspenderCompilacion(boolean suspender) {
+        compilacionSuspendida = suspender;
+    }
 
-            // Para otras expresiones, evaluar operador y argumentos
-            ElementoBase operadorEvaluado = evaluarInterno(operador, ambienteActual);
+    /**
+     * Indica si la evaluación tiene un presupuesto de pasos. Los pasos se cuentan por
+     * intérprete, así que con presupuesto las primitivas paralelas se ejecutan en orden.
+     */
+    public boolean tienePresupuesto() {
+        return presupuestoPasos > 0;
+    }
 
-            // Verificar si el operador es aplicable como función
-            if (!(operadorEvaluado instanceof FuncionAplicable)) {
-                throw new ArgumentoInvalidoExcepcion("El operador no es una función: " + operadorEvaluado);
+    /**
+     * Obtiene el valor de una variable del ambiente global
+     * @return El valor vinculado, o null si la variable no está definida
+     */
+    public ElementoBase obtenerGlobal(Simbolo nombre) {
+        if (!propias.isEmpty()) {
+            ElementoBase valor = propias.get(nombre);
+            if (valor != null) {
+                return valor;
             }
-
-            // Evaluar argumentos
-            ElementoBase argumentosEvaluados = evaluarArgumentos(args, ambienteActual);
-
-            // Aplicar función
-            return ((FuncionAplicable) operadorEvaluado).aplicar(argumentosEvaluados, this);
         }
-
-        // Lista vacía
-        return expresion;
+        return padre != null ? padre.obtenerGlobal(nombre) : base.obtener(nombre);
     }
 
     /**
-     * Evalúa una expresión condicional (SI)
+     * Vincula una variable en el ambiente propio de este intérprete; los demás que
+     * comparten su imagen no la ven hasta que se publique
      */
-    private ElementoBase evaluarSi(ElementoBase args, Map<Simbolo, ElementoBase> ambienteActual)
-            throws ArgumentoInvalidoExcepcion {
+    public void definirGlobal(Simbolo nombre, ElementoBase valor) {
+        propias.put(nombre, valor);
+        propietarioGlobal = this;
+        versionGlobal = ++versionesPropias;
+    }
 
-        if (args == Simbolo.VACIO || args.resto() == Simbolo.VACIO) {
-            throw new ArgumentoInvalidoExcepcion("SI requiere al menos dos argumentos");
+    /**
+     * Agrega a la imagen las vinculaciones propias, atómicamente, y pasa a ver todo lo
+     * publicado hasta ahora. Los intérpretes que comparten la imagen las ven desde su
+     * siguiente evaluación de nivel superior. No debe llamarse durante una evaluación.
+     * @throws IllegalStateException en un intérprete derivado, que no publica
+     */
+    public void publicar() {
+        if (padre != null) {
+            throw new IllegalStateException("Un intérprete derivado no publica sus vinculaciones");
         }
-
-        ElementoBase condicion = args.primero();
-        ElementoBase ramaVerdadera = args.resto().primero();
-        ElementoBase ramaFalsa = args.resto().resto() != Simbolo.VACIO ?
-                args.resto().resto().primero() : Simbolo.VACIO;
-
-        ElementoBase resultadoCondicion = evaluarInterno(condicion, ambienteActual);
-
-        // En Lisp, todo excepto nil se considera verdadero
-        if (resultadoCondicion != Simbolo.VACIO &&
-                !(resultadoCondicion.esNumerico() && ((Entero)resultadoCondicion).valor() == 0)) {
-            return evaluarInterno(ramaVerdadera, ambienteActual);
-        } else {
-            return evaluarInterno(ramaFalsa, ambienteActual);
+        if (propias.isEmpty()) {
+            return;
         }
+        ImagenGlobal.Estado estado = imagen.publicar(propias);
+        propias.clear();
+        usarBase(estado);
     }
 
     /**
-     * Evalúa una asignación de variable (ASIGNAR)
+     * Descarta las vinculaciones propias que no se publicaron
      */
-    private ElementoBase evaluarAsignar(ElementoBase args, Map<Simbolo, ElementoBase> ambienteActual)
-            throws ArgumentoInvalidoExcepcion {
-
-        if (args == Simbolo.VACIO || args.resto() == Simbolo.VACIO || args.resto().resto() != Simbolo.VACIO) {
-            throw new ArgumentoInvalidoExcepcion("ASIGNAR requiere exactamente dos argumentos");
-        }
-
-        if (!args.primero().esSimbolo()) {
-            throw new TipoInvalidoException("El primer argumento de ASIGNAR debe ser un símbolo");
+    public void descartarPropias() {
+        if (!propias.isEmpty()) {
+            propias.clear();
+            usarBase(imagen.getEstado());
         }
+    }
 
-        Simbolo nombre = (Simbolo) args.primero();
-        ElementoBase valor = evaluarInterno(args.resto().primero(), ambienteActual);
-
-        ambienteActual.put(nombre, valor);
-        return valor;
+    /**
+     * Vinculaciones propias que todavía no se publicaron, sin copiarlas; no debe
+     * modificarse este intérprete mientras se recorren
+     */
+    public Map<Simbolo, ElementoBase> getVinculacionesPropias() {
+        return Collections.unmodifiableMap(propias);
     }
 
     /**
-     * Evalúa una definición de función (DEF_FUNCION)
+     * La imagen donde este intérprete lee y publica sus variables globales
      */
-    private ElementoBase evaluarDefinirFuncion(ElementoBase args, Map<Simbolo, ElementoBase> ambienteActual)
-            throws ArgumentoInvalidoExcepcion {
+    public ImagenGlobal getImagen() {
+        return imagen;
+    }
 
-        if (args == Simbolo.VACIO || args.resto() == Simbolo.VACIO || args.resto().resto() == Simbolo.VACIO) {
-            throw new ArgumentoInvalidoExcepcion("DEF_FUNCION requiere al menos tres argumentos");
+    /**
+     * Pasa a leer lo último publicado en la imagen, si cambió
+     */
+    private void actualizarBase() {
+        if (padre == null && (base == null || imagen.getVersion() != versionBase)) {
+            usarBase(imagen.getEstado());
         }
+    }
 
-        if (!args.primero().esSimbolo()) {
-            throw new TipoInvalidoException("El nombre de la función debe ser un símbolo");
+    private void usarBase(ImagenGlobal.Estado estado) {
+        base = estado.mapa;
+        versionBase = estado.version;
+        if (propias.isEmpty()) {
+            // Sin vinculaciones propias el ambiente es exactamente el de la imagen
+            propietarioGlobal = imagen;
+            versionGlobal = versionBase;
+        } else {
+            propietarioGlobal = this;
+            versionGlobal = ++versionesPropias;
         }
-
-        Simbolo nombreFuncion = (Simbolo) args.primero();
-        ElementoBase parametros = args.resto().primero();
-        ElementoBase cuerpo = args.resto().resto();
-
-        FuncionUsuario funcion = new FuncionUsuario(nombreFuncion, parametros, cuerpo, ambienteActual);
-        ambienteActual.put(nombreFuncion, funcion);
-
-        return nombreFuncion;
     }
 
     /**
-     * Evalúa todos los argumentos de una lista
+     * Versión del ambiente global; cambia cada vez que se vincula una variable global.
+     * Permite saber si un valor global leído antes sigue vigente sin volver a buscarlo.
      */
-    private ElementoBase evaluarArgumentos(ElementoBase args, Map<Simbolo, ElementoBase> ambienteActual)
-            throws ArgumentoInvalidoExcepcion {
-
-        if (args == Simbolo.VACIO) {
-            return Simbolo.VACIO;
-        }
+    public long getVersionGlobal() {
+        return versionGlobal;
+    }
 
-        ElementoBase primero = evaluarInterno(args.primero(), ambienteActual);
-        ElementoBase resto = evaluarArgumentos(args.resto(), ambienteActual);
+    /**
+     * Objeto al que pertenece la versión global de este intérprete. Sin vinculaciones
+     * propias es la imagen, cuya versión comparten todos los intérpretes que la leen;
+     * un derivado que todavía no vinculó nada comparte el de su padre. Los valores que
+     * se recuerdan por propietario y versión se aprovechan así entre todos ellos.
+     */
+    public Object getPropietarioGlobal() {
+        return propietarioGlobal;
+    }
 
-        return new Enlace(primero, resto);
+    /**
+     * Lector que usa leer. Recuerda las últimas expresiones leídas si la propiedad
+     * del sistema interprete.cacheLectura indica cuántas; sus contadores de aciertos
+     * y fallos muestran si vale la pena.
+     */
+    public LectorEvaluador getLector() {
+        return lector;
     }
 
     /**
@@ -265,84 +487,4 @@ public class Interprete {
 
         System.out.println("Sesión finalizada.");
     }
-
-    /**
-     * Clase interna para representar funciones definidas por el usuario
-     */
-    private class FuncionUsuario extends ElementoBase implements FuncionAplicable {
-        private Simbolo nombre;
-        private ElementoBase parametros;
-        private ElementoBase cuerpo;
-        private Map<Simbolo, ElementoBase> ambientePadre;
-
-        public FuncionUsuario(Simbolo nombre, ElementoBase parametros, ElementoBase cuerpo,
-                              Map<Simbolo, ElementoBase> ambientePadre) {
-            this.nombre = nombre;
-            this.parametros = parametros;
-            this.cuerpo = cuerpo;
-            this.ambientePadre = ambientePadre;
-        }
-
-        @Override
-        public ElementoBase aplicar(ElementoBase argumentos, Interprete interprete)
-                throws ArgumentoInvalidoExcepcion {
-
-            // Crear un nuevo ambiente extendiendo el ambiente léxico
-            Map<Simbolo, ElementoBase> ambienteLocal = new HashMap<>(ambientePadre);
-
-            // Vincular argumentos a parámetros
-            ElementoBase parametroActual = parametros;
-            ElementoBase argumentoActual = argumentos;
-
-            while (parametroActual != Simbolo.VACIO && argumentoActual != Simbolo.VACIO) {
-                if (!parametroActual.primero().esSimbolo()) {
-                    throw new TipoInvalidoException("Los parámetros deben ser símbolos");
-                }
-
-                Simbolo parametro = (Simbolo) parametroActual.primero();
-                ElementoBase argumento = argumentoActual.primero();
-
-                ambienteLocal.put(parametro, argumento);
-
-                parametroActual = parametroActual.resto();
-                argumentoActual = argumentoActual.resto();
-            }
-
-            // Verificar que no haya más parámetros que argumentos
-            if (parametroActual != Simbolo.VACIO) {
-                throw new ArgumentoInvalidoExcepcion("Faltan argumentos para la función");
-            }
-
-            // Evaluar cada expresión del cuerpo
-            ElementoBase resultado = Simbolo.VACIO;
-            ElementoBase expresionActual = cuerpo;
-
-            while (expresionActual != Simbolo.VACIO) {
-                resultado = interprete.evaluarInterno(expresionActual.primero(), ambienteLocal);
-                expresionActual = expresionActual.resto();
-            }
-
-            return resultado;
-        }
-
-        @Override
-        public ElementoBase primero() throws ArgumentoInvalidoExcepcion {
-            return null;
-        }
-
-        @Override
-        public ElementoBase resto() throws ArgumentoInvalidoExcepcion {
-            return null;
-        }
-
-        @Override
-        public void imprimir(PrintStream flujoSalida) {
-
-        }
-
-        @Override
-        public Iterator<ElementoBase> iterator() {
-            return null;
-        }
-    }
 }
\ No newline at end of file
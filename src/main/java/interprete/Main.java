@@ -2,11 +2,24 @@ package interprete;
 
 import interprete.elementos.ElementoBase;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
 /**
  * Clase principal para iniciar el interprete de Lisp
  */
 public class Main {
     public static void main(String[] args) {
+        // Con -a/--archivo se evalua un script forma por forma
+        if (args.length == 2 && (args[0].equals("-a") || args[0].equals("--archivo"))) {
+            evaluarArchivo(args[1]);
+            return;
+        }
+
         System.out.println("=== Interprete de Lisp ===");
         System.out.println("Ingresa 'salir' para terminar la sesion");
         System.out.println();
@@ -33,4 +46,21 @@ public class Main {
             interprete.iniciarREPL();
         }
     }
+
+    /**
+     * Evalua un archivo de script sin cargarlo completo en memoria
+     */
+    private static void evaluarArchivo(String ruta) {
+        Interprete interprete = new Interprete();
+
+        try (Reader entrada = new InputStreamReader(Files.newInputStream(Paths.get(ruta)), StandardCharsets.UTF_8)) {
+            interprete.evaluarFlujo(entrada);
+        } catch (IOException e) {
+            System.err.println("Error al leer " + ruta + ": " + e.getMessage());
+            System.exit(1);
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
 }
@@ -0,0 +1,112 @@
+package interprete.elementos;
+
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Vector de elementos en un arreglo contiguo que crece al agregar.
+ * El acceso por índice es de tiempo constante. Para el evaluador es un átomo:
+ * se evalúa a sí mismo y no es una lista.
+ */
+public class Arreglo extends ElementoAtomico {
+    private static final ElementoBase[] VACIO = new ElementoBase[0];
+
+    private ElementoBase[] elementos;
+    private int longitud;
+
+    public Arreglo() {
+        this.elementos = VACIO;
+    }
+
+    /**
+     * @param elementos Elementos iniciales; el arreglo se copia
+     */
+    public Arreglo(ElementoBase[] elementos) {
+        this.elementos = elementos.clone();
+        this.longitud = elementos.length;
+    }
+
+    /**
+     * Crea un vector con todas sus posiciones ocupadas por el mismo valor
+     */
+    public static Arreglo lleno(int longitud, ElementoBase valor) {
+        ElementoBase[] elementos = new ElementoBase[longitud];
+        Arrays.fill(elementos, valor);
+        Arreglo arreglo = new Arreglo();
+        arreglo.elementos = elementos;
+        arreglo.longitud = longitud;
+        return arreglo;
+    }
+
+    public int longitud() {
+        return longitud;
+    }
+
+    /**
+     * @throws ArgumentoInvalidoExcepcion si el índice está fuera del vector
+     */
+    public ElementoBase obtener(int indice) throws ArgumentoInvalidoExcepcion {
+        verificarIndice(indice);
+        return elementos[indice];
+    }
+
+    /**
+     * @throws ArgumentoInvalidoExcepcion si el índice está fuera del vector
+     */
+    public void fijar(int indice, ElementoBase valor) throws ArgumentoInvalidoExcepcion {
+        verificarIndice(indice);
+        elementos[indice] = valor;
+    }
+
+    /**
+     * Agrega un elemento al final, duplicando la capacidad cuando se llena
+     */
+    public void agregar(ElementoBase valor) {
+        if (longitud == elementos.length) {
+            elementos = Arrays.copyOf(elementos, Math.max(8, longitud * 2));
+        }
+        elementos[longitud++] = valor;
+    }
+
+    private void verificarIndice(int indice) throws ArgumentoInvalidoExcepcion {
+        if (indice < 0 || indice >= longitud) {
+            throw new ArgumentoInvalidoExcepcion("Índice " + indice + " fuera del vector de longitud " + longitud);
+        }
+    }
+
+    @Override
+    public void imprimir(PrintStream flujoSalida) {
+        flujoSalida.print("#(");
+        for (int i = 0; i < longitud; i++) {
+            if (i > 0) {
+                flujoSalida.print(" ");
+            }
+            elementos[i].imprimir(flujoSalida);
+        }
+        flujoSalida.print(")");
+    }
+
+    @Override
+    public Iterator<ElementoBase> iterator() {
+        return new Iterator<ElementoBase>() {
+            private int siguiente;
+
+            @Override
+            public boolean hasNext() {
+                return siguiente < longitud;
+            }
+
+            @Override
+            public ElementoBase next() {
+                if (siguiente >= longitud) {
+                    throw new NoSuchElementException();
+                }
+                return elementos[siguiente++];
+            }
+        };
+    }
+}
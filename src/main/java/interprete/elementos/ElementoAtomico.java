@@ -2,6 +2,7 @@ package interprete.elementos;
 
 import interprete.excepciones.ArgumentoInvalidoExcepcion;
 
+import java.util.Collections;
 import java.util.Iterator;
 
 public abstract class ElementoAtomico extends ElementoBase {
@@ -21,8 +22,11 @@ public abstract class ElementoAtomico extends ElementoBase {
         throw new ArgumentoInvalidoExcepcion("No se puede obtener el resto de un átomo: " + this.toString());
     }
 
+    /**
+     * Un átomo no tiene elementos
+     */
     @Override
     public Iterator<ElementoBase> iterator() {
-        return null;
+        return Collections.emptyIterator();
     }
 }
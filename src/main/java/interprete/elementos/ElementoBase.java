@@ -51,4 +51,12 @@ public abstract class ElementoBase implements Iterable<ElementoBase> {
     public Stream<ElementoBase> flujo() {
         return StreamSupport.stream(this.spliterator(), false);
     }
+
+    /**
+     * Flujo paralelo sobre los elementos. Las listas se dividen por mitades;
+     * el flujo no debe usarse mientras algo modifique la lista.
+     */
+    public Stream<ElementoBase> flujoParalelo() {
+        return StreamSupport.stream(this.spliterator(), true);
+    }
 }
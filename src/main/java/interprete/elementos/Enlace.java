@@ -4,6 +4,7 @@ import interprete.excepciones.ArgumentoInvalidoExcepcion;
 
 import java.io.PrintStream;
 import java.util.Iterator;
+import java.util.Spliterator;
 
 import static interprete.elementos.Simbolo.VACIO;
 
@@ -26,23 +27,54 @@ public class Enlace extends ElementoBase {
         return cola;
     }
 
+    /**
+     * Reemplaza la cola del enlace. Solo debe usarse al construir una lista
+     * nueva, antes de que otro código pueda verla.
+     */
+    public void establecerResto(ElementoBase cola) {
+        this.cola = cola;
+    }
+
     @Override
     public void imprimir(PrintStream flujoSalida) {
+        imprimirLista(this, flujoSalida);
+    }
+
+    /**
+     * Imprime una lista que puede mezclar enlaces y tramos en arreglo.
+     * Lo que no es ninguno de los dos termina la lista y, salvo VACIO, se imprime tras un punto.
+     */
+    static void imprimirLista(ElementoBase lista, PrintStream flujoSalida) {
         flujoSalida.print("(");
-        ElementoBase siguiente = this;
-        do {
-            ((Enlace)siguiente).primero().imprimir(flujoSalida);
-            siguiente = ((Enlace)siguiente).resto();
-            if (siguiente.esAtomico()) {
-                if (siguiente != VACIO) {
-                    flujoSalida.print(" . ");
-                    siguiente.imprimir(flujoSalida);
+        ElementoBase siguiente = lista;
+        boolean primerElemento = true;
+        while (true) {
+            if (siguiente instanceof Enlace) {
+                Enlace enlace = (Enlace) siguiente;
+                if (!primerElemento) {
+                    flujoSalida.print(" ");
+                }
+                enlace.cabeza.imprimir(flujoSalida);
+                siguiente = enlace.cola;
+            } else if (siguiente instanceof ListaArreglo) {
+                ListaArreglo tramo = (ListaArreglo) siguiente;
+                for (int i = 0; i < tramo.longitud(); i++) {
+                    if (!primerElemento || i > 0) {
+                        flujoSalida.print(" ");
+                    }
+                    tramo.elemento(i).imprimir(flujoSalida);
                 }
-                flujoSalida.print(")");
+                siguiente = tramo.cola();
             } else {
-                flujoSalida.print(" ");
+                break;
             }
-        } while (!siguiente.esAtomico());
+            primerElemento = false;
+        }
+        if (siguiente != VACIO) {
+            flujoSalida.print(" . ");
+            siguiente.imprimir(flujoSalida);
+        }
+        flujoSalida.print(")");
     }
 
     @Override
@@ -50,6 +82,11 @@ public class Enlace extends ElementoBase {
         return new IteradorLista(this);
     }
 
+    @Override
+    public Spliterator<ElementoBase> spliterator() {
+        return new EspliteradorLista(this);
+    }
+
     class IteradorLista implements Iterator<ElementoBase> {
         private ElementoBase actual;
 
@@ -1,20 +1,57 @@
 package interprete.elementos;
 
 import java.io.PrintStream;
-import java.util.HashMap;
+import java.math.BigInteger;
 
 public class Entero extends ElementoAtomico {
-    private static HashMap<Long, Entero> tablaEnteros = new HashMap<>();
+    /**
+     * Rango de valores que se comparten desde un arreglo precreado; fuera de él
+     * cada resultado es una instancia nueva, así que no debe compararse con ==
+     */
+    private static final int MINIMO_COMPARTIDO = -1024;
+    private static final int MAXIMO_COMPARTIDO = 1024;
+    private static final Entero[] compartidos = new Entero[MAXIMO_COMPARTIDO - MINIMO_COMPARTIDO + 1];
+
+    static {
+        for (int i = 0; i < compartidos.length; i++) {
+            compartidos[i] = new Entero(i + MINIMO_COMPARTIDO);
+        }
+    }
+
     public static final Entero CERO = crear(0);
     public static final Entero UNO = crear(1);
     private long valor;
 
+    /**
+     * Valor exacto cuando no cabe en un long; null en el caso común
+     */
+    private final BigInteger grande;
+
     private Entero(long valor) {
         this.valor = valor;
+        this.grande = null;
+    }
+
+    private Entero(BigInteger grande) {
+        this.valor = grande.longValue();
+        this.grande = grande;
     }
 
     public static Entero crear(long valor) {
-        return tablaEnteros.computeIfAbsent(valor, Entero::new);
+        if (valor >= MINIMO_COMPARTIDO && valor <= MAXIMO_COMPARTIDO) {
+            return compartidos[(int) valor - MINIMO_COMPARTIDO];
+        }
+        return new Entero(valor);
+    }
+
+    /**
+     * Crea un entero de precisión arbitraria; si cabe en un long se representa como tal
+     */
+    public static Entero crear(BigInteger valor) {
+        if (valor.bitLength() < Long.SIZE) {
+            return crear(valor.longValue());
+        }
+        return new Entero(valor);
     }
 
     @Override
@@ -24,10 +61,117 @@ public class Entero extends ElementoAtomico {
 
     @Override
     public void imprimir(PrintStream flujoSalida) {
-        flujoSalida.print(valor);
+        if (grande != null) {
+            flujoSalida.print(grande);
+        } else {
+            flujoSalida.print(valor);
+        }
     }
 
+    /**
+     * Valor como long. Solo es exacto si el entero no es grande; en ese caso
+     * devuelve los 64 bits inferiores, como BigInteger.longValue
+     */
     public long valor() {
         return this.valor;
     }
+
+    /**
+     * Indica si el valor no cabe en un long
+     */
+    public boolean esGrande() {
+        return grande != null;
+    }
+
+    public boolean esCero() {
+        return grande == null && valor == 0;
+    }
+
+    /**
+     * Valor exacto, para cualquier tamaño
+     */
+    public BigInteger valorGrande() {
+        return grande != null ? grande : BigInteger.valueOf(valor);
+    }
+
+    /*
+     * Operaciones aritméticas. Mientras ambos operandos caben en un long se calcula
+     * con long y la detección de desbordamiento de Math; solo al desbordar, o con un
+     * operando grande, se pasa a BigInteger. El resultado vuelve a long si cabe.
+     */
+
+    public static Entero sumar(Entero a, Entero b) {
+        if (a.grande == null && b.grande == null) {
+            try {
+                return crear(Math.addExact(a.valor, b.valor));
+            } catch (ArithmeticException e) {
+                // Se repite con precisión arbitraria
+            }
+        }
+        return crear(a.valorGrande().add(b.valorGrande()));
+    }
+
+    public static Entero restar(Entero a, Entero b) {
+        if (a.grande == null && b.grande == null) {
+            try {
+                return crear(Math.subtractExact(a.valor, b.valor));
+            } catch (ArithmeticException e) {
+                // Se repite con precisión arbitraria
+            }
+        }
+        return crear(a.valorGrande().subtract(b.valorGrande()));
+    }
+
+    public static Entero multiplicar(Entero a, Entero b) {
+        if (a.grande == null && b.grande == null) {
+            try {
+                return crear(Math.multiplyExact(a.valor, b.valor));
+            } catch (ArithmeticException e) {
+                // Se repite con precisión arbitraria
+            }
+        }
+        return crear(a.valorGrande().multiply(b.valorGrande()));
+    }
+
+    /**
+     * Cociente truncado hacia cero
+     * @throws ArithmeticException si el divisor es cero
+     */
+    public static Entero dividir(Entero a, Entero b) {
+        if (a.grande == null && b.grande == null && !(a.valor == Long.MIN_VALUE && b.valor == -1)) {
+            return crear(a.valor / b.valor);
+        }
+        return crear(a.valorGrande().divide(b.valorGrande()));
+    }
+
+    public static Entero negar(Entero a) {
+        if (a.grande == null && a.valor != Long.MIN_VALUE) {
+            return crear(-a.valor);
+        }
+        return crear(a.valorGrande().negate());
+    }
+
+    /**
+     * @return Un número negativo, cero o positivo según a sea menor, igual o mayor que b
+     */
+    public static int comparar(Entero a, Entero b) {
+        if (a.grande == null && b.grande == null) {
+            return Long.compare(a.valor, b.valor);
+        }
+        return a.valorGrande().compareTo(b.valorGrande());
+    }
+
+    @Override
+    public boolean equals(Object otro) {
+        if (!(otro instanceof Entero)) {
+            return false;
+        }
+        Entero entero = (Entero) otro;
+        return entero.valor == valor && (grande == null ? entero.grande == null : grande.equals(entero.grande));
+    }
+
+    @Override
+    public int hashCode() {
+        return grande != null ? grande.hashCode() : Long.hashCode(valor);
+    }
 }
@@ -0,0 +1,158 @@
+package interprete.elementos;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator sobre una lista de enlaces y tramos en arreglo.
+ * Recorre los elementos hasta el primer resto que no sea una lista, igual que
+ * el iterador de Enlace. La longitud se conoce de entrada si la lista es un solo
+ * tramo en arreglo; si no, se cuenta la primera vez que se divide, y desde entonces
+ * ambas mitades la informan (SIZED). Dividir recorre la mitad de lo que queda, pero
+ * los tramos en arreglo se saltan sin recorrerlos.
+ */
+final class EspliteradorLista implements Spliterator<ElementoBase> {
+    private ElementoBase actual;
+    // Elementos que quedan por entregar, o -1 si todavía no se contaron
+    private long restantes;
+
+    EspliteradorLista(ElementoBase lista) {
+        this(lista, longitudConocida(lista));
+    }
+
+    private EspliteradorLista(ElementoBase lista, long restantes) {
+        this.actual = lista;
+        this.restantes = restantes;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super ElementoBase> accion) {
+        if (restantes == 0) {
+            return false;
+        }
+        ElementoBase elemento;
+        if (actual instanceof Enlace) {
+            elemento = ((Enlace) actual).primero();
+            actual = ((Enlace) actual).resto();
+        } else if (actual instanceof ListaArreglo) {
+            elemento = ((ListaArreglo) actual).primero();
+            actual = ((ListaArreglo) actual).resto();
+        } else {
+            restantes = 0;
+            return false;
+        }
+        if (restantes > 0) {
+            restantes--;
+        }
+        accion.accept(elemento);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super ElementoBase> accion) {
+        long pendientes = restantes < 0 ? Long.MAX_VALUE : restantes;
+        ElementoBase siguiente = actual;
+        while (pendientes > 0) {
+            if (siguiente instanceof Enlace) {
+                accion.accept(((Enlace) siguiente).primero());
+                siguiente = ((Enlace) siguiente).resto();
+                pendientes--;
+            } else if (siguiente instanceof ListaArreglo) {
+                // Un tramo en arreglo se recorre por índice, sin crear una vista por elemento
+                ListaArreglo tramo = (ListaArreglo) siguiente;
+                int cantidad = (int) Math.min(tramo.longitud(), pendientes);
+                for (int i = 0; i < cantidad; i++) {
+                    accion.accept(tramo.elemento(i));
+                }
+                pendientes -= cantidad;
+                siguiente = cantidad < tramo.longitud() ? tramo.desde(cantidad) : tramo.cola();
+            } else {
+                break;
+            }
+        }
+        actual = siguiente;
+        restantes = 0;
+    }
+
+    /**
+     * Separa la primera mitad de los elementos que quedan
+     */
+    @Override
+    public Spliterator<ElementoBase> trySplit() {
+        if (restantes < 0) {
+            restantes = contar(actual);
+        }
+        if (restantes < 2) {
+            return null;
+        }
+
+        long mitad = restantes / 2;
+        EspliteradorLista prefijo = new EspliteradorLista(actual, mitad);
+        actual = avanzar(actual, mitad);
+        restantes -= mitad;
+        return prefijo;
+    }
+
+    @Override
+    public long estimateSize() {
+        return restantes >= 0 ? restantes : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return restantes >= 0 ? ORDERED | NONNULL | SIZED | SUBSIZED : ORDERED | NONNULL;
+    }
+
+    /**
+     * Longitud de la lista si se conoce sin recorrerla, o -1
+     */
+    private static long longitudConocida(ElementoBase lista) {
+        if (lista instanceof ListaArreglo && !esLista(((ListaArreglo) lista).cola())) {
+            return ((ListaArreglo) lista).longitud();
+        }
+        return esLista(lista) ? -1 : 0;
+    }
+
+    private static long contar(ElementoBase lista) {
+        long cantidad = 0;
+        ElementoBase siguiente = lista;
+        while (esLista(siguiente)) {
+            if (siguiente instanceof ListaArreglo) {
+                cantidad += ((ListaArreglo) siguiente).longitud();
+                siguiente = ((ListaArreglo) siguiente).cola();
+            } else {
+                cantidad++;
+                siguiente = ((Enlace) siguiente).resto();
+            }
+        }
+        return cantidad;
+    }
+
+    /**
+     * Lo que queda de la lista después de saltar la cantidad dada de elementos
+     */
+    private static ElementoBase avanzar(ElementoBase lista, long cantidad) {
+        ElementoBase siguiente = lista;
+        while (cantidad > 0) {
+            if (siguiente instanceof ListaArreglo) {
+                ListaArreglo tramo = (ListaArreglo) siguiente;
+                if (cantidad < tramo.longitud()) {
+                    return tramo.desde((int) cantidad);
+                }
+                cantidad -= tramo.longitud();
+                siguiente = tramo.cola();
+            } else {
+                siguiente = ((Enlace) siguiente).resto();
+                cantidad--;
+            }
+        }
+        return siguiente;
+    }
+
+    /**
+     * Las funciones no son átomos pero tampoco listas: terminan la lista como cualquier átomo
+     */
+    private static boolean esLista(ElementoBase elemento) {
+        return elemento instanceof Enlace || elemento instanceof ListaArreglo;
+    }
+}
@@ -0,0 +1,138 @@
+package interprete.elementos;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+
+/**
+ * Lista inmutable guardada en un arreglo contiguo en lugar de una cadena de enlaces.
+ * Ocupa un objeto y un arreglo para toda la lista, contra un Enlace por elemento.
+ * Se comporta como cualquier lista: resto devuelve una vista del mismo arreglo
+ * que empieza un elemento después, y al final sigue la cola (VACIO, o el último
+ * elemento de una lista con punto).
+ */
+public final class ListaArreglo extends ElementoBase {
+    /**
+     * Las listas más cortas se construyen con enlaces, que no crean una vista en cada resto
+     */
+    public static final int LONGITUD_MINIMA = 8;
+
+    private final ElementoBase[] elementos;
+    private final int inicio;
+    private final ElementoBase cola;
+
+    private ListaArreglo(ElementoBase[] elementos, int inicio, ElementoBase cola) {
+        this.elementos = elementos;
+        this.inicio = inicio;
+        this.cola = cola;
+    }
+
+    /**
+     * Construye una lista con los primeros elementos del arreglo, que se copian
+     * @param longitud Cantidad de elementos a tomar
+     * @param cola Lo que sigue al último elemento; VACIO para una lista propia
+     * @return Una ListaArreglo, o una cadena de enlaces si la lista es corta
+     */
+    public static ElementoBase crear(ElementoBase[] elementos, int longitud, ElementoBase cola) {
+        if (longitud < LONGITUD_MINIMA) {
+            ElementoBase resultado = cola;
+            for (int i = longitud - 1; i >= 0; i--) {
+                resultado = new Enlace(elementos[i], resultado);
+            }
+            return resultado;
+        }
+        return new ListaArreglo(Arrays.copyOf(elementos, longitud), 0, cola);
+    }
+
+    @Override
+    public ElementoBase primero() {
+        return elementos[inicio];
+    }
+
+    @Override
+    public ElementoBase resto() {
+        return inicio + 1 < elementos.length ? new ListaArreglo(elementos, inicio + 1, cola) : cola;
+    }
+
+    /**
+     * Cantidad de elementos desde el primero de esta vista hasta la cola
+     */
+    public int longitud() {
+        return elementos.length - inicio;
+    }
+
+    /**
+     * Lo que sigue al último elemento del arreglo
+     */
+    public ElementoBase cola() {
+        return cola;
+    }
+
+    /**
+     * Si esta vista y la otra empiezan en el mismo elemento del mismo arreglo, aunque sean
+     * objetos distintos: resto crea una vista nueva en cada llamada
+     */
+    public boolean mismaVista(ListaArreglo otra) {
+        return elementos == otra.elementos && inicio == otra.inicio && cola == otra.cola;
+    }
+
+    /**
+     * Dispersión coherente con mismaVista
+     */
+    public int dispersionVista() {
+        return 31 * System.identityHashCode(elementos) + inicio;
+    }
+
+    ElementoBase elemento(int indice) {
+        return elementos[inicio + indice];
+    }
+
+    /**
+     * Vista que empieza la cantidad dada de elementos más adelante; debe ser menor que la longitud
+     */
+    ListaArreglo desde(int cantidad) {
+        return new ListaArreglo(elementos, inicio + cantidad, cola);
+    }
+
+    @Override
+    public void imprimir(PrintStream flujoSalida) {
+        Enlace.imprimirLista(this, flujoSalida);
+    }
+
+    @Override
+    public Spliterator<ElementoBase> spliterator() {
+        return new EspliteradorLista(this);
+    }
+
+    @Override
+    public Iterator<ElementoBase> iterator() {
+        return new Iterator<ElementoBase>() {
+            private int siguiente = inicio;
+            private Iterator<ElementoBase> iteradorCola;
+
+            @Override
+            public boolean hasNext() {
+                if (siguiente < elementos.length) {
+                    return true;
+                }
+                if (iteradorCola == null) {
+                    iteradorCola = cola.esAtomico() ? null : cola.iterator();
+                    if (iteradorCola == null) {
+                        return false;
+                    }
+                }
+                return iteradorCola.hasNext();
+            }
+
+            @Override
+            public ElementoBase next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return siguiente < elementos.length ? elementos[siguiente++] : iteradorCola.next();
+            }
+        };
+    }
+}
@@ -1,10 +1,9 @@
 package interprete.elementos;
 
 import java.io.PrintStream;
-import java.util.HashMap;
 
 public class Simbolo extends ElementoAtomico {
-    private static HashMap<String, Simbolo> tablaSímbolos = new HashMap<>();
+    private static final TablaInternado<String, Simbolo> tablaSímbolos = new TablaInternado<>();
     public static final Simbolo VACIO = simbolo("VACIO");
     public static final Simbolo VERDADERO = simbolo("VERDADERO");
     public static final Simbolo PRIMERO = simbolo("PRIMERO");
@@ -27,6 +26,18 @@ public class Simbolo extends ElementoAtomico {
     public static final Simbolo COMA_ARROBA = simbolo("COMA_ARROBA");
     public static final Simbolo EVALUAR = simbolo("EVALUAR");
     public static final Simbolo APLICAR = simbolo("APLICAR");
+    public static final Simbolo MAPEAR = simbolo("MAPEAR");
+    public static final Simbolo PMAPEAR = simbolo("PMAPEAR");
+    public static final Simbolo LIMPIAR_MEMO = simbolo("LIMPIAR_MEMO");
+    public static final Simbolo INFO_MEMO = simbolo("INFO_MEMO");
+    public static final Simbolo CONFIGURAR_MEMO = simbolo("CONFIGURAR_MEMO");
+    public static final Simbolo TAMANO = simbolo("TAMANO");
+    public static final Simbolo CAPACIDAD = simbolo("CAPACIDAD");
+    public static final Simbolo ACIERTOS = simbolo("ACIERTOS");
+    public static final Simbolo FALLOS = simbolo("FALLOS");
+    public static final Simbolo POLITICA = simbolo("POLITICA");
+    public static final Simbolo LRU = simbolo("LRU");
+    public static final Simbolo FIFO = simbolo("FIFO");
     public static final Simbolo Y = simbolo("Y");
     public static final Simbolo O = simbolo("O");
     public static final Simbolo NO = simbolo("NO");
@@ -46,6 +57,19 @@ public class Simbolo extends ElementoAtomico {
     public static final Simbolo MENOR = simbolo("<");
     public static final Simbolo MAYOR = simbolo(">");
     public static final Simbolo IGUAL_NUM = simbolo("=");
+    public static final Simbolo VECTOR = simbolo("VECTOR");
+    public static final Simbolo HACER_VECTOR = simbolo("HACER_VECTOR");
+    public static final Simbolo ELEMENTO = simbolo("ELEMENTO");
+    public static final Simbolo FIJAR_ELEMENTO = simbolo("FIJAR_ELEMENTO");
+    public static final Simbolo AGREGAR = simbolo("AGREGAR");
+    public static final Simbolo TABLA = simbolo("TABLA");
+    public static final Simbolo OBTENER = simbolo("OBTENER");
+    public static final Simbolo GUARDAR = simbolo("GUARDAR");
+    public static final Simbolo BORRAR = simbolo("BORRAR");
+    public static final Simbolo CLAVES = simbolo("CLAVES");
+    public static final Simbolo LONGITUD = simbolo("LONGITUD");
+    public static final Simbolo A_LISTA = simbolo("A_LISTA");
+    public static final Simbolo RECORRER = simbolo("RECORRER");
     public static final Simbolo IMPRIMIR = simbolo("IMPRIMIR");
     public static final Simbolo IMPRIMIR_SIMPLE = simbolo("IMPRIMIR_SIMPLE");
     public static final Simbolo IMPRIMIR_SI = simbolo("IMPRIMIR_SI");
@@ -53,6 +77,7 @@ public class Simbolo extends ElementoAtomico {
     public static final Simbolo SELECCIONAR = simbolo("SELECCIONAR");
     public static final Simbolo PARAMETROS = simbolo("*PARAMETROS*");
     public static final Simbolo DEF_FUNCION = simbolo("DEF_FUNCION");
+    public static final Simbolo DEF_FUNCION_MEMO = simbolo("DEF_FUNCION_MEMO");
     public static final Simbolo DEF_MACRO = simbolo("DEF_MACRO");
     public static final Simbolo ASIGNAR = simbolo("ASIGNAR");
     public static final Simbolo INDEFINIDO = simbolo("INDEFINIDO");
@@ -67,7 +92,7 @@ public class Simbolo extends ElementoAtomico {
     }
 
     public static Simbolo simbolo(String identificador) {
-        return tablaSímbolos.computeIfAbsent(identificador.toUpperCase(), Simbolo::new);
+        return tablaSímbolos.obtener(identificador.toUpperCase(), Simbolo::new);
     }
 
     @Override
@@ -0,0 +1,58 @@
+package interprete.elementos;
+
+import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tabla de dispersión que asocia claves atómicas con valores.
+ * Los símbolos y textos están internados y los enteros se comparan por valor,
+ * así que las búsquedas son de tiempo constante. Recorre sus entradas en el
+ * orden en que se agregaron. Para el evaluador es un átomo.
+ */
+public class TablaHash extends ElementoAtomico {
+    private final Map<ElementoBase, ElementoBase> entradas = new LinkedHashMap<>();
+
+    /**
+     * @return El valor asociado, o null si la clave no está
+     */
+    public ElementoBase obtener(ElementoBase clave) {
+        return entradas.get(clave);
+    }
+
+    public void guardar(ElementoBase clave, ElementoBase valor) {
+        entradas.put(clave, valor);
+    }
+
+    /**
+     * @return Si la clave estaba en la tabla
+     */
+    public boolean borrar(ElementoBase clave) {
+        return entradas.remove(clave) != null;
+    }
+
+    public int longitud() {
+        return entradas.size();
+    }
+
+    /**
+     * Entradas de la tabla, en orden de inserción. No debe modificarse la tabla mientras se recorren.
+     */
+    public Iterable<Map.Entry<ElementoBase, ElementoBase>> entradas() {
+        return entradas.entrySet();
+    }
+
+    @Override
+    public void imprimir(PrintStream flujoSalida) {
+        flujoSalida.print("#<tabla:" + entradas.size() + ">");
+    }
+
+    /**
+     * Recorre las claves de la tabla
+     */
+    @Override
+    public Iterator<ElementoBase> iterator() {
+        return entradas.keySet().iterator();
+    }
+}
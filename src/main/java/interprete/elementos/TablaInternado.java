@@ -0,0 +1,71 @@
+package interprete.elementos;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Tabla de internado segura para hilos que no impide la recolección de sus valores.
+ * Mientras un valor siga en uso, todas las búsquedas con la misma clave devuelven
+ * la misma instancia; cuando deja de usarse, su entrada se elimina en la siguiente
+ * operación sobre la tabla.
+ */
+final class TablaInternado<K, V> {
+    private final ConcurrentHashMap<K, Entrada<K, V>> entradas = new ConcurrentHashMap<>();
+    private final ReferenceQueue<V> recolectados = new ReferenceQueue<>();
+
+    /**
+     * Devuelve la instancia internada para la clave, creándola si no existe
+     * @param clave La clave del valor
+     * @param crear Construye el valor cuando no hay uno vivo para la clave
+     */
+    V obtener(K clave, Function<K, V> crear) {
+        limpiar();
+
+        Entrada<K, V> entrada = entradas.get(clave);
+        V valor = entrada != null ? entrada.get() : null;
+        if (valor != null) {
+            return valor;
+        }
+
+        V nuevo = crear.apply(clave);
+        Entrada<K, V> nuevaEntrada = new Entrada<>(clave, nuevo, recolectados);
+        while (true) {
+            entrada = entradas.putIfAbsent(clave, nuevaEntrada);
+            if (entrada == null) {
+                return nuevo;
+            }
+            // Otro hilo ganó la carrera: usar su valor si sigue vivo
+            valor = entrada.get();
+            if (valor != null) {
+                return valor;
+            }
+            if (entradas.replace(clave, entrada, nuevaEntrada)) {
+                return nuevo;
+            }
+        }
+    }
+
+    /**
+     * Elimina las entradas cuyos valores ya fueron recolectados
+     */
+    @SuppressWarnings("unchecked")
+    private void limpiar() {
+        Reference<? extends V> referencia;
+        while ((referencia = recolectados.poll()) != null) {
+            Entrada<K, V> entrada = (Entrada<K, V>) referencia;
+            entradas.remove(entrada.clave, entrada);
+        }
+    }
+
+    private static final class Entrada<K, V> extends WeakReference<V> {
+        private final K clave;
+
+        Entrada(K clave, V valor, ReferenceQueue<V> cola) {
+            super(valor, cola);
+            this.clave = clave;
+        }
+    }
+}
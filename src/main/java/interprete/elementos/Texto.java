@@ -1,11 +1,10 @@
 package interprete.elementos;
 
 import java.io.PrintStream;
-import java.util.HashMap;
 import java.util.function.Consumer;
 
 public class Texto extends ElementoAtomico {
-    private static HashMap<String, Texto> tablaTextos = new HashMap<>();
+    private static final TablaInternado<String, Texto> tablaTextos = new TablaInternado<>();
     private String contenido;
 
     private Texto(String contenido) {
@@ -13,7 +12,7 @@ public class Texto extends ElementoAtomico {
     }
 
     public static Texto crear(String contenido) {
-        return tablaTextos.computeIfAbsent(contenido, Texto::new);
+        return tablaTextos.obtener(contenido, Texto::new);
     }
 
     @Override
@@ -0,0 +1,267 @@
+package interprete.evaluacion;
+
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Enlace;
+import interprete.elementos.Simbolo;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+import interprete.excepciones.TipoInvalidoException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Convierte una expresión leída en un árbol de nodos ejecutables.
+ * Reconoce las formas especiales, separa constantes de variables y resuelve cada
+ * variable local a su dirección léxica, de modo que nada de esto se repite al ejecutar.
+ */
+public class Analizador {
+    /**
+     * Primitivas cuyo resultado depende solo de sus argumentos
+     */
+    private static final Set<Simbolo> PRIMITIVAS_PURAS = new HashSet<>(Arrays.asList(
+            Simbolo.SUMAR, Simbolo.RESTAR, Simbolo.MULTIPLICAR, Simbolo.DIVIDIR,
+            Simbolo.IGUAL_NUM, Simbolo.MENOR, Simbolo.MAYOR, Simbolo.NO, Simbolo.Y, Simbolo.O));
+
+    /**
+     * Analiza una expresión del nivel global
+     * @param expresion La expresión devuelta por el lector
+     * @return El nodo listo para ejecutarse sin marco
+     */
+    public Nodo analizar(ElementoBase expresion) throws ArgumentoInvalidoExcepcion {
+        return analizar(expresion, null, false);
+    }
+
+    /**
+     * @param enCola Si la expresión es lo último que evalúa el cuerpo de una función
+     */
+    private Nodo analizar(ElementoBase expresion, Alcance alcance, boolean enCola)
+            throws ArgumentoInvalidoExcepcion {
+
+        // Si es un átomo
+        if (expresion.esAtomico()) {
+            if (expresion.esSimbolo()) {
+                return analizarSimbolo((Simbolo) expresion, alcance);
+            }
+            // Si es un literal (número, texto), devolver tal cual
+            return new NodoConstante(expresion);
+        }
+
+        ElementoBase operador = expresion.primero();
+        ElementoBase args = expresion.resto();
+
+        // Formas especiales
+        if (operador == Simbolo.SI) {
+            return analizarSi(args, alcance, enCola);
+        } else if (operador == Simbolo.ASIGNAR) {
+            return analizarAsignar(args, alcance);
+        } else if (operador == Simbolo.DEF_FUNCION || operador == Simbolo.DEF_FUNCION_MEMO) {
+            return analizarDefinirFuncion((Simbolo) operador, args, alcance);
+        } else if (operador == Simbolo.CITAR) {
+            if (args == Simbolo.VACIO || args.resto() != Simbolo.VACIO) {
+                throw new ArgumentoInvalidoExcepcion("QUOTE requiere exactamente un argumento");
+            }
+            return new NodoConstante(args.primero());
+        }
+
+        // Aplicación de función
+        List<Nodo> argumentos = new ArrayList<>();
+        for (ElementoBase actual = args; actual != Simbolo.VACIO; actual = actual.resto()) {
+            argumentos.add(analizar(actual.primero(), alcance, false));
+        }
+        return analizarLlamada(operador, analizar(operador, alcance, false),
+                argumentos.toArray(new Nodo[0]), enCola);
+    }
+
+    /**
+     * Construye el nodo de una aplicación. Las llamadas a primitivas sin efectos
+     * se pliegan si todos sus argumentos son constantes, y las aritméticas de dos
+     * argumentos se especializan; ambos nodos comprueban al ejecutar que el nombre
+     * siga siendo la primitiva y, si no, recurren a la llamada común.
+     */
+    private Nodo analizarLlamada(ElementoBase operador, Nodo nodoOperador, Nodo[] argumentos, boolean enCola) {
+        NodoLlamada llamada = new NodoLlamada(nodoOperador, argumentos, enCola);
+        if (!(nodoOperador instanceof NodoGlobal) || !PRIMITIVAS_PURAS.contains(operador)) {
+            return llamada;
+        }
+
+        Simbolo simbolo = (Simbolo) operador;
+        if (sonConstantes(argumentos)) {
+            return new NodoPlegado(simbolo, nodoOperador, argumentos, llamada);
+        }
+        if (argumentos.length == 2 && NodoAritmetico.especializa(simbolo)) {
+            return new NodoAritmetico(simbolo, nodoOperador, argumentos[0], argumentos[1], llamada);
+        }
+        return llamada;
+    }
+
+    private static boolean sonConstantes(Nodo[] nodos) {
+        for (Nodo nodo : nodos) {
+            if (!(nodo instanceof NodoConstante) && !(nodo instanceof NodoPlegado)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Nodo analizarSimbolo(Simbolo simbolo, Alcance alcance) {
+        // Casos especiales: nil, t
+        if (simbolo == Simbolo.VACIO || simbolo == Simbolo.VERDADERO) {
+            return new NodoConstante(simbolo);
+        }
+
+        int profundidad = 0;
+        for (Alcance actual = alcance; actual != null; actual = actual.padre) {
+            int indice = actual.indiceDe(simbolo);
+            if (indice >= 0) {
+                return new NodoLocal(simbolo, profundidad, indice);
+            }
+            profundidad++;
+        }
+        return new NodoGlobal(simbolo);
+    }
+
+    private Nodo analizarSi(ElementoBase args, Alcance alcance, boolean enCola)
+            throws ArgumentoInvalidoExcepcion {
+        if (args == Simbolo.VACIO || args.resto() == Simbolo.VACIO) {
+            throw new ArgumentoInvalidoExcepcion("SI requiere al menos dos argumentos");
+        }
+
+        // Ambas ramas heredan la posición de cola; la condición nunca está en ella
+        Nodo condicion = analizar(args.primero(), alcance, false);
+        Nodo ramaVerdadera = analizar(args.resto().primero(), alcance, enCola);
+        Nodo ramaFalsa = args.resto().resto() != Simbolo.VACIO ?
+                analizar(args.resto().resto().primero(), alcance, enCola) : new NodoConstante(Simbolo.VACIO);
+
+        return new NodoSi(condicion, ramaVerdadera, ramaFalsa);
+    }
+
+    private Nodo analizarAsignar(ElementoBase args, Alcance alcance) throws ArgumentoInvalidoExcepcion {
+        if (args == Simbolo.VACIO || args.resto() == Simbolo.VACIO || args.resto().resto() != Simbolo.VACIO) {
+            throw new ArgumentoInvalidoExcepcion("ASIGNAR requiere exactamente dos argumentos");
+        }
+
+        if (!args.primero().esSimbolo()) {
+            throw new TipoInvalidoException("El primer argumento de ASIGNAR debe ser un símbolo");
+        }
+
+        Simbolo nombre = (Simbolo) args.primero();
+        Nodo valor = analizar(args.resto().primero(), alcance, false);
+
+        return new NodoAsignar(nombre, alcance != null ? alcance.indiceDe(nombre) : -1, valor);
+    }
+
+    private Nodo analizarDefinirFuncion(Simbolo forma, ElementoBase args, Alcance alcance)
+            throws ArgumentoInvalidoExcepcion {
+        if (args == Simbolo.VACIO || args.resto() == Simbolo.VACIO || args.resto().resto() == Simbolo.VACIO) {
+            throw new ArgumentoInvalidoExcepcion(forma + " requiere al menos tres argumentos");
+        }
+
+        if (!args.primero().esSimbolo()) {
+            throw new TipoInvalidoException("El nombre de la función debe ser un símbolo");
+        }
+
+        Simbolo nombreFuncion = (Simbolo) args.primero();
+        ElementoBase parametros = args.resto().primero();
+        ElementoBase cuerpo = args.resto().resto();
+
+        // Los parámetros ocupan los primeros espacios del marco; después van
+        // las variables que el cuerpo define con ASIGNAR o DEF_FUNCION
+        List<Simbolo> nombres = new ArrayList<>();
+        for (ElementoBase actual = parametros; actual != Simbolo.VACIO; actual = actual.resto()) {
+            if (!actual.primero().esSimbolo()) {
+                throw new TipoInvalidoException("Los parámetros deben ser símbolos");
+            }
+            nombres.add((Simbolo) actual.primero());
+        }
+        int cantidadParametros = nombres.size();
+        recolectarLocales(cuerpo, nombres);
+
+        Alcance alcanceFuncion = new Alcance(nombres.toArray(new Simbolo[0]), alcance);
+        List<Nodo> expresiones = new ArrayList<>();
+        for (ElementoBase actual = cuerpo; actual != Simbolo.VACIO; actual = actual.resto()) {
+            boolean ultima = actual.resto() == Simbolo.VACIO;
+            expresiones.add(analizar(actual.primero(), alcanceFuncion, ultima));
+        }
+        Nodo cuerpoAnalizado = expresiones.size() == 1 ?
+                expresiones.get(0) : new NodoSecuencia(expresiones.toArray(new Nodo[0]));
+
+        return new NodoDefinirFuncion(nombreFuncion, alcance != null ? alcance.indiceDe(nombreFuncion) : -1,
+                alcanceFuncion.nombres, cantidadParametros, cuerpoAnalizado, forma == Simbolo.DEF_FUNCION_MEMO,
+                args.resto());
+    }
+
+    /**
+     * Vuelve a crear una función a partir de su definición y del marco en que se
+     * definió, como al leer un archivo de imagen. Los nombres de la cadena de marcos
+     * son los del alcance en que se analizó, así que el resultado es equivalente.
+     * @param definicion Parámetros y cuerpo, como los devuelve FuncionUsuario.getDefinicion
+     * @param marcoPadre Marco léxico de la función, o null si es global
+     */
+    public FuncionUsuario restaurarFuncion(Simbolo nombre, ElementoBase definicion, boolean memorizada,
+                                           Marco marcoPadre) throws ArgumentoInvalidoExcepcion {
+        Simbolo forma = memorizada ? Simbolo.DEF_FUNCION_MEMO : Simbolo.DEF_FUNCION;
+        NodoDefinirFuncion nodo = (NodoDefinirFuncion) analizarDefinirFuncion(
+                forma, new Enlace(nombre, definicion), alcanceDe(marcoPadre));
+        return nodo.crear(marcoPadre);
+    }
+
+    private static Alcance alcanceDe(Marco marco) {
+        return marco == null ? null : new Alcance(marco.getNombres(), alcanceDe(marco.getPadre()));
+    }
+
+    /**
+     * Reserva un espacio para cada nombre que el cuerpo vincula localmente.
+     * No entra en expresiones citadas ni en los cuerpos de funciones anidadas.
+     */
+    private void recolectarLocales(ElementoBase expresion, List<Simbolo> nombres)
+            throws ArgumentoInvalidoExcepcion {
+        if (expresion.esAtomico()) {
+            return;
+        }
+
+        ElementoBase operador = expresion.primero();
+        if (operador == Simbolo.CITAR) {
+            return;
+        }
+        boolean definicion = operador == Simbolo.DEF_FUNCION || operador == Simbolo.DEF_FUNCION_MEMO;
+        if ((operador == Simbolo.ASIGNAR || definicion)
+                && !expresion.resto().esAtomico() && expresion.resto().primero().esSimbolo()) {
+            Simbolo local = (Simbolo) expresion.resto().primero();
+            if (!nombres.contains(local)) {
+                nombres.add(local);
+            }
+            if (definicion) {
+                return;
+            }
+        }
+
+        for (ElementoBase actual = expresion; !actual.esAtomico(); actual = actual.resto()) {
+            recolectarLocales(actual.primero(), nombres);
+        }
+    }
+
+    /**
+     * Nombres visibles en el marco de una función durante el análisis
+     */
+    private static final class Alcance {
+        private final Simbolo[] nombres;
+        private final Alcance padre;
+
+        Alcance(Simbolo[] nombres, Alcance padre) {
+            this.nombres = nombres;
+            this.padre = padre;
+        }
+
+        int indiceDe(Simbolo nombre) {
+            for (int i = 0; i < nombres.length; i++) {
+                if (nombres[i] == nombre) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
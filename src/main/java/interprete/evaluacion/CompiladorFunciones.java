@@ -0,0 +1,349 @@
+package interprete.evaluacion;
+
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Entero;
+import interprete.elementos.Simbolo;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static interprete.evaluacion.EscritorClase.*;
+
+/**
+ * Traduce a bytecode el cuerpo de una función de usuario numérica.
+ *
+ * Se compila solo un subconjunto en el que todos los valores son enteros y por lo
+ * tanto pueden llevarse como long sin crear objetos: constantes enteras,
+ * parámetros, SI, + - * con cualquier cantidad de argumentos y llamadas a la
+ * propia función. Las comparaciones = < > y NO se admiten en la condición de un SI.
+ * El cuerpo se convierte en un método estático; las llamadas a sí misma son
+ * llamadas estáticas directas, y las que están en posición de cola, un salto al
+ * inicio del método.
+ *
+ * La aritmética usa Math.addExact y similares: si un resultado no cabe en un long
+ * se lanza ArithmeticException y la llamada completa se repite interpretada.
+ */
+final class CompiladorFunciones {
+    private static final String INTERPRETE = "interprete/Interprete";
+    private static final String BASE = "interprete/evaluacion/FuncionCompilada";
+    private static final String MATEMATICAS = "java/lang/Math";
+    private static final String OPERACION_EXACTA = "(JJ)J";
+
+    /**
+     * Más parámetros no caben en el descriptor de un método con dos palabras por long
+     */
+    private static final int MAXIMO_PARAMETROS = 120;
+
+    private static final AtomicInteger contador = new AtomicInteger();
+
+    private final FuncionUsuario funcion;
+    private final int cantidadParametros;
+    private final String nombreClase;
+    private final String descriptorCuerpo;
+    private final Set<Simbolo> primitivas = new LinkedHashSet<>();
+    private boolean recursiva;
+    private EscritorClase.Codigo codigo;
+    private EscritorClase.Etiqueta inicio;
+
+    private CompiladorFunciones(FuncionUsuario funcion) {
+        this.funcion = funcion;
+        this.cantidadParametros = funcion.getCantidadParametros();
+        this.nombreClase = "interprete/evaluacion/Compilada$" + contador.incrementAndGet();
+
+        StringBuilder descriptor = new StringBuilder("(L" + INTERPRETE + ";I");
+        for (int i = 0; i < cantidadParametros; i++) {
+            descriptor.append('J');
+        }
+        this.descriptorCuerpo = descriptor.append(")J").toString();
+    }
+
+    /**
+     * Compila el cuerpo de una función
+     * @return El cuerpo compilado, o null si usa algo fuera del subconjunto numérico
+     */
+    static FuncionCompilada compilar(FuncionUsuario funcion) {
+        if (funcion.getCantidadParametros() > MAXIMO_PARAMETROS) {
+            return null;
+        }
+
+        CompiladorFunciones compilador = new CompiladorFunciones(funcion);
+        if (!compilador.esValor(funcion.getCuerpo())) {
+            return null;
+        }
+
+        try {
+            byte[] bytes = compilador.generar();
+            Class<?> clase = new Cargador(FuncionCompilada.class.getClassLoader())
+                    .definir(compilador.nombreClase.replace('/', '.'), bytes);
+            FuncionCompilada compilada = (FuncionCompilada) clase.getDeclaredConstructor().newInstance();
+            compilada.inicializar(compilador.primitivas.toArray(new Simbolo[0]), compilador.recursiva);
+            return compilada;
+        } catch (ReflectiveOperationException | LinkageError | IllegalStateException e) {
+            // Si la JVM rechaza la clase la función simplemente sigue interpretándose
+            return null;
+        }
+    }
+
+    /**
+     * Indica si el nodo produce un entero dentro del subconjunto compilable,
+     * y anota las primitivas y llamadas recursivas que necesita
+     */
+    private boolean esValor(Nodo nodo) {
+        if (nodo instanceof NodoConstante) {
+            return Nodo.esLong(((NodoConstante) nodo).getValor());
+        }
+        if (nodo instanceof NodoLocal) {
+            NodoLocal local = (NodoLocal) nodo;
+            return local.getProfundidad() == 0 && local.getIndice() < cantidadParametros;
+        }
+        if (nodo instanceof NodoSi) {
+            NodoSi si = (NodoSi) nodo;
+            return esCondicion(si.getCondicion()) && esValor(si.getRamaVerdadera()) && esValor(si.getRamaFalsa());
+        }
+        if (nodo instanceof NodoAritmetico) {
+            NodoAritmetico aritmetico = (NodoAritmetico) nodo;
+            if (!esAritmetica(aritmetico.getSimbolo())) {
+                return false;
+            }
+            primitivas.add(aritmetico.getSimbolo());
+            return esValor(aritmetico.getIzquierdo()) && esValor(aritmetico.getDerecho());
+        }
+        if (nodo instanceof NodoLlamada) {
+            NodoLlamada llamada = (NodoLlamada) nodo;
+            Simbolo simbolo = operadorGlobal(llamada);
+            Nodo[] argumentos = llamada.getArgumentos();
+            if (simbolo == null || !sonValores(argumentos)) {
+                return false;
+            }
+            if (simbolo == funcion.getNombre()) {
+                recursiva = true;
+                return argumentos.length == cantidadParametros;
+            }
+            if (esAritmetica(simbolo) && argumentos.length > 0) {
+                primitivas.add(simbolo);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indica si el nodo puede usarse como condición de un SI compilado
+     */
+    private boolean esCondicion(Nodo nodo) {
+        if (nodo instanceof NodoConstante) {
+            ElementoBase valor = ((NodoConstante) nodo).getValor();
+            return valor == Simbolo.VERDADERO || valor == Simbolo.VACIO || Nodo.esLong(valor);
+        }
+        if (nodo instanceof NodoAritmetico && esComparacion(((NodoAritmetico) nodo).getSimbolo())) {
+            NodoAritmetico comparacion = (NodoAritmetico) nodo;
+            primitivas.add(comparacion.getSimbolo());
+            return esValor(comparacion.getIzquierdo()) && esValor(comparacion.getDerecho());
+        }
+        if (nodo instanceof NodoLlamada && operadorGlobal((NodoLlamada) nodo) == Simbolo.NO
+                && ((NodoLlamada) nodo).getArgumentos().length == 1) {
+            primitivas.add(Simbolo.NO);
+            return esCondicion(((NodoLlamada) nodo).getArgumentos()[0]);
+        }
+        return esValor(nodo);
+    }
+
+    private boolean sonValores(Nodo[] nodos) {
+        for (Nodo nodo : nodos) {
+            if (!esValor(nodo)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Simbolo operadorGlobal(NodoLlamada llamada) {
+        return llamada.getOperador() instanceof NodoGlobal ? ((NodoGlobal) llamada.getOperador()).getSimbolo() : null;
+    }
+
+    private static boolean esAritmetica(Simbolo simbolo) {
+        return simbolo == Simbolo.SUMAR || simbolo == Simbolo.RESTAR || simbolo == Simbolo.MULTIPLICAR;
+    }
+
+    private static boolean esComparacion(Simbolo simbolo) {
+        return simbolo == Simbolo.IGUAL_NUM || simbolo == Simbolo.MENOR || simbolo == Simbolo.MAYOR;
+    }
+
+    /**
+     * Genera la clase: un constructor, el método estático con el cuerpo y el
+     * método ejecutar que lo llama con los argumentos del arreglo
+     */
+    private byte[] generar() {
+        EscritorClase escritor = new EscritorClase(nombreClase, BASE);
+
+        EscritorClase.Codigo constructor = escritor.metodo(ACC_PUBLIC, "<init>", "()V", 1);
+        constructor.variable(ALOAD, 0, 1);
+        constructor.invocar(INVOKESPECIAL, BASE, "<init>", "()V", -1);
+        constructor.instruccion(RETURN, 0);
+        constructor.terminar();
+
+        EscritorClase.Codigo puente = escritor.metodo(ACC_PUBLIC, "ejecutar",
+                "(L" + INTERPRETE + ";[J)J", 3);
+        puente.variable(ALOAD, 1, 1);
+        puente.entero(0);
+        for (int i = 0; i < cantidadParametros; i++) {
+            puente.variable(ALOAD, 2, 1);
+            puente.entero(i);
+            puente.instruccion(LALOAD, 0);
+        }
+        puente.invocar(INVOKESTATIC, nombreClase, "cuerpo", descriptorCuerpo, 2 - 2 - 2 * cantidadParametros);
+        puente.instruccion(LRETURN, -2);
+        puente.terminar();
+
+        // cuerpo(Interprete interprete, int profundidad, long p0, long p1, ...)
+        codigo = escritor.metodo(ACC_PUBLIC | ACC_STATIC, "cuerpo", descriptorCuerpo, 2 + 2 * cantidadParametros);
+        codigo.variable(ALOAD, 0, 1);
+        codigo.variable(ILOAD, 1, 1);
+        codigo.invocar(INVOKEVIRTUAL, INTERPRETE, "verificarProfundidad", "(I)V", -2);
+        inicio = new EscritorClase.Etiqueta();
+        codigo.colocar(inicio);
+        cola(funcion.getCuerpo());
+        codigo.terminar();
+
+        return escritor.bytes();
+    }
+
+    /**
+     * Emite un nodo en posición de cola: cada camino termina en un return o en un
+     * salto al inicio
+     */
+    private void cola(Nodo nodo) {
+        if (nodo instanceof NodoSi) {
+            NodoSi si = (NodoSi) nodo;
+            EscritorClase.Etiqueta falso = new EscritorClase.Etiqueta();
+            condicion(si.getCondicion(), falso, false);
+            cola(si.getRamaVerdadera());
+            codigo.colocar(falso);
+            cola(si.getRamaFalsa());
+        } else if (nodo instanceof NodoLlamada && operadorGlobal((NodoLlamada) nodo) == funcion.getNombre()) {
+            // Se evalúan todos los argumentos antes de reemplazar los parámetros
+            Nodo[] argumentos = ((NodoLlamada) nodo).getArgumentos();
+            for (Nodo argumento : argumentos) {
+                valor(argumento);
+            }
+            for (int i = argumentos.length - 1; i >= 0; i--) {
+                codigo.variable(LSTORE, parametro(i), -2);
+            }
+            codigo.saltar(GOTO, inicio);
+            codigo.fijarAltura(0);
+        } else {
+            valor(nodo);
+            codigo.instruccion(LRETURN, -2);
+            codigo.fijarAltura(0);
+        }
+    }
+
+    /**
+     * Emite un nodo que deja su valor como long en la pila
+     */
+    private void valor(Nodo nodo) {
+        if (nodo instanceof NodoConstante) {
+            codigo.largo(((Entero) ((NodoConstante) nodo).getValor()).valor());
+        } else if (nodo instanceof NodoLocal) {
+            codigo.variable(LLOAD, parametro(((NodoLocal) nodo).getIndice()), 2);
+        } else if (nodo instanceof NodoSi) {
+            NodoSi si = (NodoSi) nodo;
+            EscritorClase.Etiqueta falso = new EscritorClase.Etiqueta();
+            EscritorClase.Etiqueta fin = new EscritorClase.Etiqueta();
+            condicion(si.getCondicion(), falso, false);
+            valor(si.getRamaVerdadera());
+            codigo.saltar(GOTO, fin);
+            codigo.colocar(falso);
+            valor(si.getRamaFalsa());
+            codigo.colocar(fin);
+        } else if (nodo instanceof NodoAritmetico) {
+            NodoAritmetico aritmetico = (NodoAritmetico) nodo;
+            valor(aritmetico.getIzquierdo());
+            valor(aritmetico.getDerecho());
+            operacion(aritmetico.getSimbolo());
+        } else {
+            NodoLlamada llamada = (NodoLlamada) nodo;
+            Simbolo simbolo = operadorGlobal(llamada);
+            Nodo[] argumentos = llamada.getArgumentos();
+            if (simbolo == funcion.getNombre()) {
+                codigo.variable(ALOAD, 0, 1);
+                codigo.variable(ILOAD, 1, 1);
+                codigo.entero(1);
+                codigo.instruccion(IADD, -1);
+                for (Nodo argumento : argumentos) {
+                    valor(argumento);
+                }
+                codigo.invocar(INVOKESTATIC, nombreClase, "cuerpo", descriptorCuerpo, 2 - 2 - 2 * argumentos.length);
+            } else if (simbolo == Simbolo.RESTAR && argumentos.length == 1) {
+                valor(argumentos[0]);
+                codigo.invocar(INVOKESTATIC, MATEMATICAS, "negateExact", "(J)J", 0);
+            } else {
+                valor(argumentos[0]);
+                for (int i = 1; i < argumentos.length; i++) {
+                    valor(argumentos[i]);
+                    operacion(simbolo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Emite una condición que salta al destino si su veracidad es la indicada
+     */
+    private void condicion(Nodo nodo, EscritorClase.Etiqueta destino, boolean saltarSiVerdadera) {
+        if (nodo instanceof NodoAritmetico && esComparacion(((NodoAritmetico) nodo).getSimbolo())) {
+            NodoAritmetico comparacion = (NodoAritmetico) nodo;
+            valor(comparacion.getIzquierdo());
+            valor(comparacion.getDerecho());
+            codigo.instruccion(LCMP, -3);
+            Simbolo simbolo = comparacion.getSimbolo();
+            if (simbolo == Simbolo.IGUAL_NUM) {
+                codigo.saltar(saltarSiVerdadera ? IFEQ : IFNE, destino);
+            } else if (simbolo == Simbolo.MENOR) {
+                codigo.saltar(saltarSiVerdadera ? IFLT : IFGE, destino);
+            } else {
+                codigo.saltar(saltarSiVerdadera ? IFGT : IFLE, destino);
+            }
+        } else if (nodo instanceof NodoLlamada && operadorGlobal((NodoLlamada) nodo) == Simbolo.NO) {
+            condicion(((NodoLlamada) nodo).getArgumentos()[0], destino, !saltarSiVerdadera);
+        } else {
+            // Un entero es verdadero si no es cero; VERDADERO y VACIO se tratan como 1 y 0
+            if (nodo instanceof NodoConstante && !((NodoConstante) nodo).getValor().esNumerico()) {
+                codigo.largo(((NodoConstante) nodo).getValor() == Simbolo.VACIO ? 0 : 1);
+            } else {
+                valor(nodo);
+            }
+            codigo.largo(0);
+            codigo.instruccion(LCMP, -3);
+            codigo.saltar(saltarSiVerdadera ? IFNE : IFEQ, destino);
+        }
+    }
+
+    private void operacion(Simbolo simbolo) {
+        String metodo = simbolo == Simbolo.SUMAR ? "addExact"
+                : simbolo == Simbolo.RESTAR ? "subtractExact" : "multiplyExact";
+        codigo.invocar(INVOKESTATIC, MATEMATICAS, metodo, OPERACION_EXACTA, -2);
+    }
+
+    /**
+     * Variable local del parámetro: 0 es el intérprete, 1 la profundidad y cada long ocupa dos
+     */
+    private static int parametro(int indice) {
+        return 2 + 2 * indice;
+    }
+
+    /**
+     * Cargador propio de cada función compilada, para que su clase pueda
+     * descargarse cuando la función deja de usarse
+     */
+    private static final class Cargador extends ClassLoader {
+        Cargador(ClassLoader padre) {
+            super(padre);
+        }
+
+        Class<?> definir(String nombre, byte[] bytes) {
+            return defineClass(nombre, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package interprete.evaluacion;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escritor mínimo de archivos de clase para CompiladorFunciones.
+ * Produce clases de la versión 49, que la JVM verifica por inferencia de tipos y
+ * por eso no necesitan tablas de marcos de pila. Solo cubre las constantes e
+ * instrucciones que el compilador usa; no tiene campos ni atributos de depuración.
+ */
+final class EscritorClase {
+    private static final int VERSION = 49;
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    // Instrucciones usadas por el compilador
+    static final int ICONST_0 = 0x03;
+    static final int LCONST_0 = 0x09;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC2_W = 0x14;
+    static final int ILOAD = 0x15;
+    static final int LLOAD = 0x16;
+    static final int ALOAD = 0x19;
+    static final int LALOAD = 0x2f;
+    static final int LSTORE = 0x37;
+    static final int IADD = 0x60;
+    static final int LCMP = 0x94;
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9a;
+    static final int IFLT = 0x9b;
+    static final int IFGE = 0x9c;
+    static final int IFGT = 0x9d;
+    static final int IFLE = 0x9e;
+    static final int GOTO = 0xa7;
+    static final int LRETURN = 0xad;
+    static final int RETURN = 0xb1;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+
+    private static final int CONSTANTE_UTF8 = 1;
+    private static final int CONSTANTE_LONG = 5;
+    private static final int CONSTANTE_CLASE = 7;
+    private static final int CONSTANTE_METODO = 10;
+    private static final int CONSTANTE_NOMBRE_TIPO = 12;
+
+    private final ByteArrayOutputStream constantes = new ByteArrayOutputStream();
+    private final DataOutputStream salidaConstantes = new DataOutputStream(constantes);
+    private final Map<String, Integer> indices = new HashMap<>();
+    private int siguienteIndice = 1;
+
+    private final int clase;
+    private final int superclase;
+    private final List<byte[]> metodos = new ArrayList<>();
+
+    /**
+     * @param nombre Nombre interno de la clase, con barras (a/b/C)
+     * @param superclase Nombre interno de la superclase
+     */
+    EscritorClase(String nombre, String superclase) {
+        this.clase = clase(nombre);
+        this.superclase = clase(superclase);
+    }
+
+    /**
+     * Comienza un método; se agrega a la clase al llamar a Codigo.terminar
+     */
+    Codigo metodo(int acceso, String nombre, String descriptor, int variablesLocales) {
+        return new Codigo(acceso, utf8(nombre), utf8(descriptor), variablesLocales);
+    }
+
+    /**
+     * Bytes completos del archivo de clase
+     */
+    byte[] bytes() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream salida = new DataOutputStream(bytes);
+            salida.writeInt(0xCAFEBABE);
+            salida.writeShort(0);
+            salida.writeShort(VERSION);
+            salida.writeShort(siguienteIndice);
+            salidaConstantes.flush();
+            constantes.writeTo(salida);
+            salida.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            salida.writeShort(clase);
+            salida.writeShort(superclase);
+            salida.writeShort(0); // interfaces
+            salida.writeShort(0); // campos
+            salida.writeShort(metodos.size());
+            for (byte[] metodo : metodos) {
+                salida.write(metodo);
+            }
+            salida.writeShort(0); // atributos
+            salida.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    int referenciaMetodo(String propietario, String nombre, String descriptor) {
+        String clave = "M" + propietario + '.' + nombre + descriptor;
+        Integer indice = indices.get(clave);
+        if (indice == null) {
+            int indiceClase = clase(propietario);
+            int nombreTipo = nombreTipo(nombre, descriptor);
+            indice = agregar(clave, 1, salida -> {
+                salida.writeByte(CONSTANTE_METODO);
+                salida.writeShort(indiceClase);
+                salida.writeShort(nombreTipo);
+            });
+        }
+        return indice;
+    }
+
+    int constanteLong(long valor) {
+        return agregar("J" + valor, 2, salida -> {
+            salida.writeByte(CONSTANTE_LONG);
+            salida.writeLong(valor);
+        });
+    }
+
+    private int clase(String nombre) {
+        String clave = "C" + nombre;
+        Integer indice = indices.get(clave);
+        if (indice == null) {
+            int indiceNombre = utf8(nombre);
+            indice = agregar(clave, 1, salida -> {
+                salida.writeByte(CONSTANTE_CLASE);
+                salida.writeShort(indiceNombre);
+            });
+        }
+        return indice;
+    }
+
+    private int nombreTipo(String nombre, String descriptor) {
+        String clave = "T" + nombre + ' ' + descriptor;
+        Integer indice = indices.get(clave);
+        if (indice == null) {
+            int indiceNombre = utf8(nombre);
+            int indiceDescriptor = utf8(descriptor);
+            indice = agregar(clave, 1, salida -> {
+                salida.writeByte(CONSTANTE_NOMBRE_TIPO);
+                salida.writeShort(indiceNombre);
+                salida.writeShort(indiceDescriptor);
+            });
+        }
+        return indice;
+    }
+
+    private int utf8(String texto) {
+        return agregar("U" + texto, 1, salida -> {
+            salida.writeByte(CONSTANTE_UTF8);
+            salida.writeUTF(texto);
+        });
+    }
+
+    /**
+     * Agrega una constante si no existe
+     * @param espacios Entradas que ocupa en la tabla (2 para long y double)
+     */
+    private int agregar(String clave, int espacios, EscrituraConstante escritura) {
+        Integer existente = indices.get(clave);
+        if (existente != null) {
+            return existente;
+        }
+        try {
+            escritura.escribir(salidaConstantes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        int indice = siguienteIndice;
+        siguienteIndice += espacios;
+        indices.put(clave, indice);
+        return indice;
+    }
+
+    @FunctionalInterface
+    private interface EscrituraConstante {
+        void escribir(DataOutputStream salida) throws IOException;
+    }
+
+    /**
+     * Posición del código a la que saltan las instrucciones de salto.
+     * Puede usarse antes de colocarse; los desplazamientos se completan al colocarla.
+     */
+    static final class Etiqueta {
+        private int posicion = -1;
+        private int altura;
+        private final List<int[]> pendientes = new ArrayList<>();
+    }
+
+    /**
+     * Código de un método. Lleva la cuenta de la altura de la pila para
+     * calcular max_stack; las variables locales las declara quien lo crea.
+     */
+    final class Codigo {
+        private final int acceso;
+        private final int nombre;
+        private final int descriptor;
+        private final int variablesLocales;
+        private byte[] codigo = new byte[64];
+        private int longitud;
+        private int altura;
+        private int alturaMaxima;
+
+        private Codigo(int acceso, int nombre, int descriptor, int variablesLocales) {
+            this.acceso = acceso;
+            this.nombre = nombre;
+            this.descriptor = descriptor;
+            this.variablesLocales = variablesLocales;
+        }
+
+        /**
+         * Emite una instrucción sin operandos
+         * @param efectoPila Cuánto cambia la altura de la pila, en palabras
+         */
+        void instruccion(int codigoOperacion, int efectoPila) {
+            byte1(codigoOperacion);
+            pila(efectoPila);
+        }
+
+        /**
+         * Emite una instrucción que lee o escribe una variable local
+         */
+        void variable(int codigoOperacion, int indice, int efectoPila) {
+            if (indice > 255) {
+                byte1(0xc4); // wide
+                byte1(codigoOperacion);
+                byte2(indice);
+            } else {
+                byte1(codigoOperacion);
+                byte1(indice);
+            }
+            pila(efectoPila);
+        }
+
+        void entero(int valor) {
+            if (valor >= -1 && valor <= 5) {
+                byte1(ICONST_0 + valor);
+            } else if (valor >= Byte.MIN_VALUE && valor <= Byte.MAX_VALUE) {
+                byte1(BIPUSH);
+                byte1(valor);
+            } else {
+                byte1(SIPUSH);
+                byte2(valor);
+            }
+            pila(1);
+        }
+
+        void largo(long valor) {
+            if (valor == 0 || valor == 1) {
+                byte1(LCONST_0 + (int) valor);
+            } else {
+                byte1(LDC2_W);
+                byte2(constanteLong(valor));
+            }
+            pila(2);
+        }
+
+        /**
+         * Emite una llamada
+         * @param efectoPila Palabras del resultado menos las de los argumentos y el receptor
+         */
+        void invocar(int codigoOperacion, String propietario, String nombreMetodo, String descriptorMetodo,
+                     int efectoPila) {
+            byte1(codigoOperacion);
+            byte2(referenciaMetodo(propietario, nombreMetodo, descriptorMetodo));
+            pila(efectoPila);
+        }
+
+        /**
+         * Emite un salto condicional (que consume un int) o un goto
+         */
+        void saltar(int codigoOperacion, Etiqueta destino) {
+            int inicio = longitud;
+            byte1(codigoOperacion);
+            pila(codigoOperacion == GOTO ? 0 : -1);
+            if (destino.posicion >= 0) {
+                byte2(destino.posicion - inicio);
+            } else {
+                destino.pendientes.add(new int[] {inicio, longitud});
+                destino.altura = altura;
+                byte2(0);
+            }
+        }
+
+        /**
+         * Coloca la etiqueta en la posición actual
+         */
+        void colocar(Etiqueta etiqueta) {
+            etiqueta.posicion = longitud;
+            for (int[] pendiente : etiqueta.pendientes) {
+                int desplazamiento = longitud - pendiente[0];
+                codigo[pendiente[1]] = (byte) (desplazamiento >> 8);
+                codigo[pendiente[1] + 1] = (byte) desplazamiento;
+            }
+            if (!etiqueta.pendientes.isEmpty()) {
+                altura = etiqueta.altura;
+            }
+        }
+
+        /**
+         * Indica la altura de la pila después de una instrucción que no continúa
+         * (goto, return), donde el seguimiento lineal ya no vale
+         */
+        void fijarAltura(int nuevaAltura) {
+            altura = nuevaAltura;
+        }
+
+        /**
+         * Agrega el método a la clase
+         * @throws IllegalStateException si el código excede lo que admite un salto de 16 bits
+         */
+        void terminar() {
+            if (longitud > Short.MAX_VALUE) {
+                throw new IllegalStateException("Método demasiado grande");
+            }
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream salida = new DataOutputStream(bytes);
+                salida.writeShort(acceso);
+                salida.writeShort(nombre);
+                salida.writeShort(descriptor);
+                salida.writeShort(1);
+                salida.writeShort(utf8("Code"));
+                salida.writeInt(12 + longitud);
+                salida.writeShort(alturaMaxima);
+                salida.writeShort(variablesLocales);
+                salida.writeInt(longitud);
+                salida.write(codigo, 0, longitud);
+                salida.writeShort(0); // excepciones
+                salida.writeShort(0); // atributos
+                salida.flush();
+                metodos.add(bytes.toByteArray());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void pila(int efecto) {
+            altura += efecto;
+            alturaMaxima = Math.max(alturaMaxima, altura);
+        }
+
+        private void byte1(int valor) {
+            if (longitud == codigo.length) {
+                byte[] nuevo = new byte[codigo.length * 2];
+                System.arraycopy(codigo, 0, nuevo, 0, longitud);
+                codigo = nuevo;
+            }
+            codigo[longitud++] = (byte) valor;
+        }
+
+        private void byte2(int valor) {
+            byte1(valor >> 8);
+            byte1(valor);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package interprete.evaluacion;
+
+import interprete.Interprete;
+import interprete.elementos.Simbolo;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+
+/**
+ * Cuerpo de una FuncionUsuario traducido a bytecode por CompiladorFunciones.
+ * Las subclases se generan en tiempo de ejecución, cada una con su propio
+ * cargador de clases, por eso esta clase y su método abstracto son públicos.
+ *
+ * El código compilado supone que el nombre de la función y las primitivas que usa
+ * siguen vinculados a lo que eran al compilar; esVigente lo comprueba antes de cada
+ * ejecución, y si no se cumple la función vuelve a interpretarse.
+ */
+public abstract class FuncionCompilada {
+    private Simbolo[] primitivas;
+    private boolean recursiva;
+    private Vigencia vigencia;
+
+    protected FuncionCompilada() {
+    }
+
+    /**
+     * Ejecuta el cuerpo compilado
+     * @param argumentos Valor de cada parámetro, en orden
+     * @return El resultado de la función
+     * @throws ArithmeticException si el resultado no cabe en un long; la llamada debe
+     *         repetirse interpretada
+     */
+    public abstract long ejecutar(Interprete interprete, long[] argumentos) throws ArgumentoInvalidoExcepcion;
+
+    /**
+     * @param primitivas Nombres de las primitivas que el código llama directamente
+     * @param recursiva Si el código se llama a sí mismo en lugar de buscar su nombre
+     */
+    void inicializar(Simbolo[] primitivas, boolean recursiva) {
+        this.primitivas = primitivas;
+        this.recursiva = recursiva;
+    }
+
+    /**
+     * Indica si el código compilado sigue siendo equivalente al cuerpo interpretado
+     * en este intérprete. El resultado se recuerda hasta que cambie su ambiente global.
+     */
+    boolean esVigente(Interprete interprete, FuncionUsuario funcion) {
+        Object propietario = interprete.getPropietarioGlobal();
+        long version = interprete.getVersionGlobal();
+        Vigencia actual = vigencia;
+        if (actual != null && actual.propietario == propietario && actual.version == version) {
+            return true;
+        }
+
+        if (recursiva && interprete.obtenerGlobal(funcion.getNombre()) != funcion) {
+            return false;
+        }
+        for (Simbolo primitiva : primitivas) {
+            if (!Nodo.esPrimitivaOriginal(interprete.obtenerGlobal(primitiva), primitiva)) {
+                return false;
+            }
+        }
+
+        vigencia = new Vigencia(propietario, version);
+        return true;
+    }
+
+    /**
+     * Propietario y versión global con que se comprobó la vigencia
+     */
+    private static final class Vigencia {
+        final Object propietario;
+        final long version;
+
+        Vigencia(Object propietario, long version) {
+            this.propietario = propietario;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package interprete.evaluacion;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Enlace;
+import interprete.elementos.ListaArreglo;
+import interprete.elementos.Simbolo;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Función definida con DEF_FUNCION_MEMO. Recuerda el resultado de cada llamada según
+ * sus argumentos, que se comparan por estructura: los enteros por valor y las listas
+ * elemento por elemento; los vectores, tablas y funciones solo son iguales a sí mismos.
+ * Una lista con más de LONGITUD_ESTRUCTURAL elementos, contando los de sus sublistas,
+ * también se compara por identidad, para que buscar en la cache no cueste recorrerla:
+ * una copia suya con los mismos elementos vuelve a ejecutar el cuerpo. Los restos de una
+ * ListaArreglo son la misma lista si empiezan en el mismo lugar del mismo arreglo.
+ * El cuerpo debe ser puro, porque una llamada repetida no vuelve a ejecutarlo.
+ *
+ * La cache tiene una capacidad máxima; al superarla descarta la entrada usada hace
+ * más tiempo (LRU) o la agregada hace más tiempo (FIFO). Los errores no se recuerdan.
+ * Puede usarse desde varios hilos a la vez.
+ */
+public class FuncionMemorizada extends FuncionUsuario {
+    /**
+     * Capacidad de la cache de cada función nueva; se toma de la propiedad del sistema
+     * interprete.capacidadMemo
+     */
+    public static final int CAPACIDAD_PREDETERMINADA = Integer.getInteger("interprete.capacidadMemo", 10000);
+
+    /**
+     * Cantidad de elementos hasta la cual un argumento lista se compara por estructura;
+     * se toma de la propiedad del sistema interprete.longitudMemo
+     */
+    public static final int LONGITUD_ESTRUCTURAL = Integer.getInteger("interprete.longitudMemo", 64);
+
+    private Resultados resultados = new Resultados(CAPACIDAD_PREDETERMINADA, true);
+    private long aciertos;
+    private long fallos;
+
+    FuncionMemorizada(Simbolo nombre, Simbolo[] nombresLocales, int cantidadParametros,
+                      Nodo cuerpo, Marco marcoPadre, ElementoBase definicion) {
+        super(nombre, nombresLocales, cantidadParametros, cuerpo, marcoPadre, definicion);
+    }
+
+    @Override
+    ElementoBase ejecutar(Marco marcoLocal, Interprete interprete) throws ArgumentoInvalidoExcepcion {
+        Object[] argumentos = new Object[getCantidadParametros()];
+        for (int i = 0; i < argumentos.length; i++) {
+            argumentos[i] = Argumentos.clave(marcoLocal.obtener(0, i));
+        }
+        Argumentos clave = new Argumentos(argumentos);
+
+        synchronized (this) {
+            ElementoBase guardado = resultados.get(clave);
+            if (guardado != null) {
+                aciertos++;
+                return guardado;
+            }
+            fallos++;
+        }
+
+        // Sin bloquear mientras se ejecuta el cuerpo, que llama a la misma función
+        ElementoBase resultado = super.ejecutar(marcoLocal, interprete);
+        synchronized (this) {
+            resultados.put(clave, resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * El código compilado se llama a sí mismo sin pasar por la cache
+     */
+    @Override
+    ElementoBase ejecutarCompilada(Marco marcoLocal, Interprete interprete) {
+        return null;
+    }
+
+    /**
+     * Olvida todos los resultados; los contadores siguen
+     * @return Cantidad de resultados que había
+     */
+    public synchronized int limpiar() {
+        int cantidad = resultados.size();
+        resultados.clear();
+        return cantidad;
+    }
+
+    /**
+     * Cambia la capacidad y la política de descarte, conservando los resultados más
+     * recientes que quepan
+     * @param lru true para descartar el usado hace más tiempo, false para el agregado hace más tiempo
+     */
+    public synchronized void configurar(int capacidad, boolean lru) {
+        Resultados nuevos = new Resultados(capacidad, lru);
+        nuevos.putAll(resultados);
+        resultados = nuevos;
+    }
+
+    public synchronized int getCapacidad() {
+        return resultados.capacidad;
+    }
+
+    public synchronized boolean esLru() {
+        return resultados.lru;
+    }
+
+    public synchronized int getTamano() {
+        return resultados.size();
+    }
+
+    public synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    public synchronized long getFallos() {
+        return fallos;
+    }
+
+    private static final class Resultados extends LinkedHashMap<Argumentos, ElementoBase> {
+        final int capacidad;
+        final boolean lru;
+
+        Resultados(int capacidad, boolean lru) {
+            super(16, 0.75f, lru);
+            this.capacidad = capacidad;
+            this.lru = lru;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Argumentos, ElementoBase> mayor) {
+            return size() > capacidad;
+        }
+    }
+
+    /**
+     * Argumentos de una llamada como clave, comparados por estructura salvo las listas
+     * largas, que van envueltas en una Identidad
+     */
+    private static final class Argumentos {
+        private final Object[] valores;
+        private final int dispersion;
+
+        Argumentos(Object[] valores) {
+            this.valores = valores;
+            int h = 1;
+            for (Object valor : valores) {
+                h = 31 * h + (valor instanceof Identidad ? valor.hashCode() : dispersion((ElementoBase) valor));
+            }
+            this.dispersion = h;
+        }
+
+        /**
+         * El argumento tal cual, o envuelto si es una lista demasiado larga para compararla
+         */
+        static Object clave(ElementoBase valor) {
+            return esLista(valor) && !esCorta(valor) ? new Identidad(valor) : valor;
+        }
+
+        /**
+         * Cuenta los elementos de la lista y sus sublistas, sin pasar de LONGITUD_ESTRUCTURAL
+         */
+        private static boolean esCorta(ElementoBase lista) {
+            int restantes = LONGITUD_ESTRUCTURAL;
+            Deque<ElementoBase> pendientes = new ArrayDeque<>();
+            pendientes.push(lista);
+            while (!pendientes.isEmpty()) {
+                ElementoBase actual = pendientes.pop();
+                while (esLista(actual)) {
+                    if (actual instanceof ListaArreglo) {
+                        ListaArreglo tramo = (ListaArreglo) actual;
+                        // Un tramo se descarta sin recorrerlo
+                        if ((restantes -= tramo.longitud()) < 0) {
+                            return false;
+                        }
+                        Iterator<ElementoBase> elementos = tramo.iterator();
+                        for (int i = 0; i < tramo.longitud(); i++) {
+                            ElementoBase elemento = elementos.next();
+                            if (esLista(elemento)) {
+                                pendientes.push(elemento);
+                            }
+                        }
+                        actual = tramo.cola();
+                    } else {
+                        if (--restantes < 0) {
+                            return false;
+                        }
+                        if (esLista(primero(actual))) {
+                            pendientes.push(primero(actual));
+                        }
+                        actual = resto(actual);
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return dispersion;
+        }
+
+        @Override
+        public boolean equals(Object otro) {
+            if (!(otro instanceof Argumentos)) {
+                return false;
+            }
+            Argumentos argumentos = (Argumentos) otro;
+            if (argumentos.dispersion != dispersion || argumentos.valores.length != valores.length) {
+                return false;
+            }
+            for (int i = 0; i < valores.length; i++) {
+                Object valor = valores[i];
+                Object otroValor = argumentos.valores[i];
+                if (valor instanceof Identidad || otroValor instanceof Identidad
+                        ? !valor.equals(otroValor)
+                        : !iguales((ElementoBase) valor, (ElementoBase) otroValor)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean esLista(ElementoBase valor) {
+            return valor instanceof Enlace || valor instanceof ListaArreglo;
+        }
+
+        private static int dispersion(ElementoBase valor) {
+            if (!esLista(valor)) {
+                return valor.hashCode();
+            }
+            int h = 1;
+            ElementoBase actual = valor;
+            for (; esLista(actual); actual = resto(actual)) {
+                h = 31 * h + dispersion(primero(actual));
+            }
+            return 31 * h + actual.hashCode();
+        }
+
+        private static boolean iguales(ElementoBase a, ElementoBase b) {
+            while (esLista(a) && esLista(b)) {
+                if (!iguales(primero(a), primero(b))) {
+                    return false;
+                }
+                a = resto(a);
+                b = resto(b);
+            }
+            return !esLista(a) && !esLista(b) && a.equals(b);
+        }
+
+        private static ElementoBase primero(ElementoBase lista) {
+            return lista instanceof Enlace ? ((Enlace) lista).primero() : ((ListaArreglo) lista).primero();
+        }
+
+        private static ElementoBase resto(ElementoBase lista) {
+            return lista instanceof Enlace ? ((Enlace) lista).resto() : ((ListaArreglo) lista).resto();
+        }
+    }
+
+    /**
+     * Lista larga como parte de una clave: solo es igual a sí misma, o a otra vista
+     * del mismo tramo si es una ListaArreglo
+     */
+    private static final class Identidad {
+        private final ElementoBase lista;
+
+        Identidad(ElementoBase lista) {
+            this.lista = lista;
+        }
+
+        @Override
+        public int hashCode() {
+            return lista instanceof ListaArreglo
+                    ? ((ListaArreglo) lista).dispersionVista()
+                    : System.identityHashCode(lista);
+        }
+
+        @Override
+        public boolean equals(Object otro) {
+            if (!(otro instanceof Identidad)) {
+                return false;
+            }
+            ElementoBase otraLista = ((Identidad) otro).lista;
+            return otraLista == lista || lista instanceof ListaArreglo && otraLista instanceof ListaArreglo
+                    && ((ListaArreglo) lista).mismaVista((ListaArreglo) otraLista);
+        }
+    }
+}
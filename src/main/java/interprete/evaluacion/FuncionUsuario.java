@@ -0,0 +1,277 @@
+package interprete.evaluacion;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Entero;
+import interprete.elementos.Simbolo;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+import interprete.excepciones.TipoInvalidoException;
+import interprete.primitivas.FuncionAplicable;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Función definida por el usuario con DEF_FUNCION.
+ * Guarda su cuerpo ya analizado y el marco léxico en el que fue definida, y
+ * también su definición sin analizar, para poder guardarla en un archivo de imagen.
+ */
+public class FuncionUsuario extends ElementoBase implements FuncionAplicable {
+    private final Simbolo nombre;
+    private final Simbolo[] nombresLocales;
+    private final int cantidadParametros;
+    private final Nodo cuerpo;
+    private final Marco marcoPadre;
+    private final ElementoBase definicion;
+    // Pueden ejecutarla varios hilos a la vez: perder una cuenta o compilar dos veces
+    // no importa, pero el código compilado debe verse completamente inicializado
+    private int llamadas;
+    private boolean compilable = true;
+    private volatile FuncionCompilada compilada;
+
+    FuncionUsuario(Simbolo nombre, Simbolo[] nombresLocales, int cantidadParametros,
+                   Nodo cuerpo, Marco marcoPadre, ElementoBase definicion) {
+        this.nombre = nombre;
+        this.nombresLocales = nombresLocales;
+        this.cantidadParametros = cantidadParametros;
+        this.cuerpo = cuerpo;
+        this.marcoPadre = marcoPadre;
+        this.definicion = definicion;
+    }
+
+    @Override
+    public ElementoBase aplicar(ElementoBase argumentos, Interprete interprete)
+            throws ArgumentoInvalidoExcepcion {
+        return ejecutar(crearMarco(argumentos), interprete);
+    }
+
+    @Override
+    public ElementoBase aplicarArreglo(ElementoBase[] argumentos, Interprete interprete)
+            throws ArgumentoInvalidoExcepcion {
+        verificarCantidad(argumentos.length);
+        Marco marcoLocal = nuevoMarco();
+        for (int i = 0; i < cantidadParametros; i++) {
+            marcoLocal.fijar(i, argumentos[i]);
+        }
+        return ejecutar(marcoLocal, interprete);
+    }
+
+    @Override
+    public ElementoBase aplicar0(Interprete interprete) throws ArgumentoInvalidoExcepcion {
+        verificarCantidad(0);
+        return ejecutar(nuevoMarco(), interprete);
+    }
+
+    @Override
+    public ElementoBase aplicar1(ElementoBase a, Interprete interprete) throws ArgumentoInvalidoExcepcion {
+        verificarCantidad(1);
+        Marco marcoLocal = nuevoMarco();
+        if (cantidadParametros > 0) {
+            marcoLocal.fijar(0, a);
+        }
+        return ejecutar(marcoLocal, interprete);
+    }
+
+    @Override
+    public ElementoBase aplicar2(ElementoBase a, ElementoBase b, Interprete interprete)
+            throws ArgumentoInvalidoExcepcion {
+        verificarCantidad(2);
+        Marco marcoLocal = nuevoMarco();
+        if (cantidadParametros > 0) {
+            marcoLocal.fijar(0, a);
+        }
+        if (cantidadParametros > 1) {
+            marcoLocal.fijar(1, b);
+        }
+        return ejecutar(marcoLocal, interprete);
+    }
+
+    @Override
+    public ElementoBase aplicar3(ElementoBase a, ElementoBase b, ElementoBase c, Interprete interprete)
+            throws ArgumentoInvalidoExcepcion {
+        verificarCantidad(3);
+        Marco marcoLocal = nuevoMarco();
+        if (cantidadParametros > 0) {
+            marcoLocal.fijar(0, a);
+        }
+        if (cantidadParametros > 1) {
+            marcoLocal.fijar(1, b);
+        }
+        if (cantidadParametros > 2) {
+            marcoLocal.fijar(2, c);
+        }
+        return ejecutar(marcoLocal, interprete);
+    }
+
+    /**
+     * Ejecuta el cuerpo sobre un marco con los argumentos ya vinculados.
+     * Las llamadas en posición de cola vuelven como LlamadaPendiente y se
+     * completan en este ciclo, sin apilar una nueva ejecución por cada una.
+     */
+    ElementoBase ejecutar(Marco marcoLocal, Interprete interprete) throws ArgumentoInvalidoExcepcion {
+        FuncionUsuario funcion = this;
+        // Si esta llamada suspendió el código compilado, para reanudarlo al terminar
+        boolean suspendida = false;
+        interprete.entrarLlamada();
+        try {
+            while (true) {
+                ElementoBase resultado = null;
+                try {
+                    resultado = funcion.ejecutarCompilada(marcoLocal, interprete);
+                } catch (ArithmeticException e) {
+                    // Se repite interpretada, y también las llamadas que haga: el código
+                    // compilado volvería a desbordarse en cada nivel
+                    suspendida = true;
+                    interprete.suspenderCompilacion(true);
+                }
+                if (resultado == null) {
+                    resultado = funcion.cuerpo.ejecutar(interprete, marcoLocal);
+                }
+                if (!(resultado instanceof LlamadaPendiente)) {
+                    return resultado;
+                }
+                LlamadaPendiente pendiente = (LlamadaPendiente) resultado;
+                if (pendiente.funcion instanceof FuncionMemorizada) {
+                    // Debe pasar por su cache, aunque eso apile una ejecución más
+                    return pendiente.funcion.ejecutar(pendiente.marco, interprete);
+                }
+                funcion = pendiente.funcion;
+                marcoLocal = pendiente.marco;
+            }
+        } finally {
+            if (suspendida) {
+                interprete.suspenderCompilacion(false);
+            }
+            interprete.salirLlamada();
+        }
+    }
+
+    /**
+     * Ejecuta la versión compilada del cuerpo, compilándolo antes si la función
+     * acaba de alcanzar el umbral de llamadas del intérprete
+     * @return El resultado, o null si esta llamada debe interpretarse: el cuerpo no es
+     *         compilable, algún argumento no es entero o cambió alguno de los nombres que usa
+     * @throws ArithmeticException si el resultado no cabe en un long
+     */
+    ElementoBase ejecutarCompilada(Marco marcoLocal, Interprete interprete)
+            throws ArgumentoInvalidoExcepcion {
+        int umbral = interprete.getUmbralCompilacion();
+        if (umbral <= 0) {
+            return null;
+        }
+
+        FuncionCompilada codigo = compilada;
+        if (codigo == null) {
+            if (!compilable || ++llamadas < umbral) {
+                return null;
+            }
+            codigo = CompiladorFunciones.compilar(this);
+            if (codigo == null) {
+                compilable = false;
+                return null;
+            }
+            compilada = codigo;
+        }
+
+        if (!codigo.esVigente(interprete, this)) {
+            return null;
+        }
+        long[] argumentos = new long[cantidadParametros];
+        for (int i = 0; i < cantidadParametros; i++) {
+            ElementoBase argumento = marcoLocal.obtener(0, i);
+            if (!Nodo.esLong(argumento)) {
+                return null;
+            }
+            argumentos[i] = ((Entero) argumento).valor();
+        }
+
+        return Entero.crear(codigo.ejecutar(interprete, argumentos));
+    }
+
+    /**
+     * Crea el marco de una llamada enlazado al marco léxico y vincula los argumentos
+     */
+    private Marco crearMarco(ElementoBase argumentos) throws ArgumentoInvalidoExcepcion {
+        Marco marcoLocal = nuevoMarco();
+
+        // Vincular argumentos a parámetros
+        ElementoBase argumentoActual = argumentos;
+        int indice = 0;
+
+        while (indice < cantidadParametros && argumentoActual != Simbolo.VACIO) {
+            marcoLocal.fijar(indice++, argumentoActual.primero());
+            argumentoActual = argumentoActual.resto();
+        }
+
+        // Verificar que no haya más parámetros que argumentos
+        if (indice < cantidadParametros) {
+            throw new ArgumentoInvalidoExcepcion("Faltan argumentos para la función");
+        }
+
+        return marcoLocal;
+    }
+
+    /**
+     * Crea un marco vacío para una llamada, enlazado al marco léxico de la función.
+     * Los parámetros ocupan los primeros espacios, en orden.
+     */
+    Marco nuevoMarco() {
+        return new Marco(nombresLocales, marcoPadre);
+    }
+
+    Nodo getCuerpo() {
+        return cuerpo;
+    }
+
+    int getCantidadParametros() {
+        return cantidadParametros;
+    }
+
+    /**
+     * Verifica que haya al menos un argumento por parámetro; los sobrantes se ignoran
+     */
+    void verificarCantidad(int cantidadArgumentos) throws ArgumentoInvalidoExcepcion {
+        if (cantidadArgumentos < cantidadParametros) {
+            throw new ArgumentoInvalidoExcepcion("Faltan argumentos para la función");
+        }
+    }
+
+    public Simbolo getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Parámetros y cuerpo tal como se leyeron: lo que sigue al nombre en DEF_FUNCION
+     */
+    public ElementoBase getDefinicion() {
+        return definicion;
+    }
+
+    /**
+     * Marco léxico en que se definió la función, o null si se definió en el nivel global
+     */
+    public Marco getMarcoPadre() {
+        return marcoPadre;
+    }
+
+    @Override
+    public ElementoBase primero() throws ArgumentoInvalidoExcepcion {
+        throw new TipoInvalidoException("No se puede obtener el primer elemento de una función");
+    }
+
+    @Override
+    public ElementoBase resto() throws ArgumentoInvalidoExcepcion {
+        throw new TipoInvalidoException("No se puede obtener el resto de una función");
+    }
+
+    @Override
+    public void imprimir(PrintStream flujoSalida) {
+
+    }
+
+    @Override
+    public Iterator<ElementoBase> iterator() {
+        return Collections.emptyIterator();
+    }
+}
@@ -0,0 +1,50 @@
+package interprete.evaluacion;
+
+import interprete.elementos.ElementoBase;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Llamada en posición de cola que todavía no se ha realizado.
+ * La devuelve el cuerpo de una función en lugar de invocar a la siguiente, y
+ * FuncionUsuario la completa en su propio ciclo para que la pila de Java no
+ * crezca. Lleva el marco de la llamada con los argumentos ya vinculados.
+ * Nunca sale de FuncionUsuario.
+ */
+final class LlamadaPendiente extends ElementoBase {
+    final FuncionUsuario funcion;
+    final Marco marco;
+
+    LlamadaPendiente(FuncionUsuario funcion, Marco marco) {
+        this.funcion = funcion;
+        this.marco = marco;
+    }
+
+    @Override
+    public ElementoBase primero() throws ArgumentoInvalidoExcepcion {
+        throw new ArgumentoInvalidoExcepcion("No se puede obtener el primer elemento de una llamada pendiente");
+    }
+
+    @Override
+    public ElementoBase resto() throws ArgumentoInvalidoExcepcion {
+        throw new ArgumentoInvalidoExcepcion("No se puede obtener el resto de una llamada pendiente");
+    }
+
+    @Override
+    public void imprimir(PrintStream flujoSalida) {
+        flujoSalida.print("#<llamada:");
+        funcion.getNombre().imprimir(flujoSalida);
+        flujoSalida.print(">");
+    }
+
+    /**
+     * Como un átomo, no tiene elementos
+     */
+    @Override
+    public Iterator<ElementoBase> iterator() {
+        return Collections.emptyIterator();
+    }
+}
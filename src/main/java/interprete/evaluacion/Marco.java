@@ -0,0 +1,95 @@
+package interprete.evaluacion;
+
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Simbolo;
+
+/**
+ * Marco de activación de una llamada a función.
+ * Guarda los parámetros y variables locales en un arreglo indexado y se enlaza
+ * con el marco léxico que lo contiene. El ambiente global no forma parte de la
+ * cadena: cuando un nombre no aparece en ningún marco se busca en el global.
+ */
+public final class Marco {
+    private final Simbolo[] nombres;
+    private final ElementoBase[] valores;
+    private final Marco padre;
+
+    /**
+     * Crea un marco con un espacio por cada nombre
+     * @param nombres Nombres de los espacios (parámetros primero, luego locales)
+     * @param padre Marco léxico que contiene a este, o null si es el global
+     */
+    public Marco(Simbolo[] nombres, Marco padre) {
+        this.nombres = nombres;
+        this.valores = new ElementoBase[nombres.length];
+        this.padre = padre;
+    }
+
+    public Marco getPadre() {
+        return padre;
+    }
+
+    /**
+     * Nombres de los espacios, en orden; el arreglo no debe modificarse
+     */
+    public Simbolo[] getNombres() {
+        return nombres;
+    }
+
+    /**
+     * Obtiene el valor guardado en la dirección léxica (profundidad, índice).
+     * Devuelve null si el espacio todavía no ha sido asignado.
+     */
+    public ElementoBase obtener(int profundidad, int indice) {
+        Marco marco = this;
+        while (profundidad-- > 0) {
+            marco = marco.padre;
+        }
+        return marco.valores[indice];
+    }
+
+    /**
+     * Guarda un valor en la dirección léxica (profundidad, índice)
+     */
+    public void asignar(int profundidad, int indice, ElementoBase valor) {
+        Marco marco = this;
+        while (profundidad-- > 0) {
+            marco = marco.padre;
+        }
+        marco.valores[indice] = valor;
+    }
+
+    /**
+     * Guarda un valor en un espacio de este mismo marco
+     */
+    public void fijar(int indice, ElementoBase valor) {
+        valores[indice] = valor;
+    }
+
+    /**
+     * Índice del espacio reservado para un nombre en este marco, o -1 si no existe
+     */
+    public int indiceDe(Simbolo nombre) {
+        for (int i = 0; i < nombres.length; i++) {
+            if (nombres[i] == nombre) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Busca un nombre recorriendo la cadena de marcos.
+     * Un espacio reservado pero sin asignar no oculta al de los marcos exteriores.
+     * @return El valor encontrado, o null si hay que recurrir al ambiente global
+     */
+    public ElementoBase buscar(Simbolo nombre) {
+        for (Marco marco = this; marco != null; marco = marco.padre) {
+            int indice = marco.indiceDe(nombre);
+            if (indice >= 0 && marco.valores[indice] != null) {
+                return marco.valores[indice];
+            }
+        }
+        return null;
+    }
+}
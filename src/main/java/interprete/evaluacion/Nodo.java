@@ -0,0 +1,68 @@
+package interprete.evaluacion;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Entero;
+import interprete.elementos.Simbolo;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+import interprete.primitivas.PrimitivasRegistro;
+
+/**
+ * Nodo ejecutable producido por el Analizador a partir de una expresión leída.
+ * Las decisiones sintácticas (forma especial, constante, variable local o global)
+ * se toman una sola vez al analizar; ejecutar solo realiza el trabajo de la forma.
+ */
+public abstract class Nodo {
+
+    /**
+     * Ejecuta el nodo
+     * @param interprete El intérprete que realiza la evaluación
+     * @param marco Marco de la llamada en curso, o null en el nivel global
+     * @return El valor de la expresión
+     */
+    public abstract ElementoBase ejecutar(Interprete interprete, Marco marco)
+            throws ArgumentoInvalidoExcepcion;
+
+    /**
+     * Ejecuta el nodo cuando quien lo usa solo necesita un entero, como los
+     * operandos de una operación aritmética. Los nodos que calculan con long lo
+     * devuelven sin crear un Entero.
+     * @throws ValorNoLong si el valor no es un entero; lleva el valor obtenido
+     */
+    long ejecutarLong(Interprete interprete, Marco marco) throws ArgumentoInvalidoExcepcion {
+        return valorLong(ejecutar(interprete, marco));
+    }
+
+    /**
+     * Ejecuta el nodo como condición de un SI, sin crear el valor de verdad
+     */
+    boolean ejecutarCondicion(Interprete interprete, Marco marco) throws ArgumentoInvalidoExcepcion {
+        return NodoSi.esVerdadero(ejecutar(interprete, marco));
+    }
+
+    /**
+     * @throws ValorNoLong si el valor no es un entero que quepa en un long
+     */
+    static long valorLong(ElementoBase valor) {
+        if (!esLong(valor)) {
+            throw new ValorNoLong(valor);
+        }
+        return ((Entero) valor).valor();
+    }
+
+    /**
+     * Indica si el valor es un entero representable como long
+     */
+    static boolean esLong(ElementoBase valor) {
+        return valor.esNumerico() && !((Entero) valor).esGrande();
+    }
+
+    /**
+     * Indica si un valor es la primitiva registrada con ese nombre, es decir, si el
+     * nombre no fue redefinido ni vinculado a otra primitiva
+     */
+    static boolean esPrimitivaOriginal(ElementoBase funcion, Simbolo nombre) {
+        return funcion instanceof PrimitivasRegistro.Primitiva
+                && ((PrimitivasRegistro.Primitiva) funcion).getNombre() == nombre;
+    }
+}
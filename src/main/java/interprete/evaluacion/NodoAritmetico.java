@@ -0,0 +1,275 @@
+package interprete.evaluacion;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Entero;
+import interprete.elementos.Simbolo;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+import interprete.primitivas.FuncionAplicable;
+
+/**
+ * Llamada de dos argumentos a una primitiva aritmética o de comparación
+ * (+ - * / = < >). Con dos enteros opera directamente sobre sus valores, sin
+ * pasar por la primitiva; los operandos que también son operaciones aritméticas
+ * entregan su resultado como long, de modo que solo se crea un Entero para el
+ * valor final. Cualquier otro caso (argumentos no numéricos, desbordamiento,
+ * división por cero, nombre redefinido) se resuelve como la llamada común, con
+ * los mismos errores.
+ */
+final class NodoAritmetico extends Nodo {
+    private static final int SUMA = 0;
+    private static final int RESTA = 1;
+    private static final int PRODUCTO = 2;
+    private static final int COCIENTE = 3;
+    private static final int IGUAL = 4;
+    private static final int MENOR = 5;
+    private static final int MAYOR = 6;
+
+    private final Simbolo simbolo;
+    private final int operacion;
+    private final Nodo operador;
+    private final Nodo izquierdo;
+    private final Nodo derecho;
+    private final NodoLlamada llamada;
+    // Solo los nodos aritméticos calculan con long; los demás operandos se ejecutan
+    // directamente, para no agregar un marco de pila por cada nivel de recursión
+    private final boolean izquierdoAritmetico;
+    private final boolean derechoAritmetico;
+    private ElementoBase primitivaVerificada;
+
+    /**
+     * @param llamada La misma llamada sin especializar, para cuando el nombre fue redefinido
+     */
+    NodoAritmetico(Simbolo simbolo, Nodo operador, Nodo izquierdo, Nodo derecho, NodoLlamada llamada) {
+        this.simbolo = simbolo;
+        this.operacion = operacion(simbolo);
+        this.operador = operador;
+        this.izquierdo = izquierdo;
+        this.derecho = derecho;
+        this.llamada = llamada;
+        this.izquierdoAritmetico = izquierdo instanceof NodoAritmetico;
+        this.derechoAritmetico = derecho instanceof NodoAritmetico;
+    }
+
+    Simbolo getSimbolo() {
+        return simbolo;
+    }
+
+    Nodo getIzquierdo() {
+        return izquierdo;
+    }
+
+    Nodo getDerecho() {
+        return derecho;
+    }
+
+    /**
+     * Indica si el símbolo nombra una de las primitivas que este nodo especializa
+     */
+    static boolean especializa(Simbolo simbolo) {
+        return operacion(simbolo) >= 0;
+    }
+
+    private static int operacion(Simbolo simbolo) {
+        if (simbolo == Simbolo.SUMAR) {
+            return SUMA;
+        } else if (simbolo == Simbolo.RESTAR) {
+            return RESTA;
+        } else if (simbolo == Simbolo.MULTIPLICAR) {
+            return PRODUCTO;
+        } else if (simbolo == Simbolo.DIVIDIR) {
+            return COCIENTE;
+        } else if (simbolo == Simbolo.IGUAL_NUM) {
+            return IGUAL;
+        } else if (simbolo == Simbolo.MENOR) {
+            return MENOR;
+        } else if (simbolo == Simbolo.MAYOR) {
+            return MAYOR;
+        }
+        return -1;
+    }
+
+    @Override
+    public ElementoBase ejecutar(Interprete interprete, Marco marco) throws ArgumentoInvalidoExcepcion {
+        ElementoBase funcion = operador.ejecutar(interprete, marco);
+        if (!esVigente(funcion)) {
+            return llamada.ejecutar(interprete, marco);
+        }
+
+        if (operacion >= IGUAL) {
+            return ejecutarCondicion(funcion, interprete, marco) ? Simbolo.VERDADERO : Entero.CERO;
+        }
+        if (izquierdoAritmetico || derechoAritmetico) {
+            try {
+                return Entero.crear(calcular(funcion, interprete, marco));
+            } catch (ValorNoLong e) {
+                return e.valor;
+            }
+        }
+
+        // Operandos simples: se ejecutan aquí mismo, sin pasar por calcular, para que
+        // una llamada recursiva como operando no sume un marco de pila por nivel
+        interprete.consumirPaso();
+        ElementoBase a = izquierdo.ejecutar(interprete, marco);
+        ElementoBase b = derecho.ejecutar(interprete, marco);
+        if (esLong(a) && esLong(b)) {
+            try {
+                return Entero.crear(operar(((Entero) a).valor(), ((Entero) b).valor()));
+            } catch (ArithmeticException e) {
+                // Desbordamiento o división por cero: decide la primitiva
+            }
+        }
+        return aplicar(funcion, a, b, interprete);
+    }
+
+    /**
+     * Como operando de otra operación el resultado se entrega sin crear un Entero
+     */
+    @Override
+    long ejecutarLong(Interprete interprete, Marco marco) throws ArgumentoInvalidoExcepcion {
+        if (operacion >= IGUAL) {
+            return super.ejecutarLong(interprete, marco);
+        }
+
+        ElementoBase funcion = operador.ejecutar(interprete, marco);
+        if (!esVigente(funcion)) {
+            return valorLong(llamada.ejecutar(interprete, marco));
+        }
+        return calcular(funcion, interprete, marco);
+    }
+
+    @Override
+    boolean ejecutarCondicion(Interprete interprete, Marco marco) throws ArgumentoInvalidoExcepcion {
+        if (operacion < IGUAL) {
+            return super.ejecutarCondicion(interprete, marco);
+        }
+
+        ElementoBase funcion = operador.ejecutar(interprete, marco);
+        if (!esVigente(funcion)) {
+            return NodoSi.esVerdadero(llamada.ejecutar(interprete, marco));
+        }
+        return ejecutarCondicion(funcion, interprete, marco);
+    }
+
+    /**
+     * Compara los operandos con la primitiva ya verificada
+     */
+    private boolean ejecutarCondicion(ElementoBase funcion, Interprete interprete, Marco marco)
+            throws ArgumentoInvalidoExcepcion {
+        if (izquierdoAritmetico || derechoAritmetico) {
+            return comparar(funcion, interprete, marco);
+        }
+
+        // Operandos simples, como en ejecutar
+        interprete.consumirPaso();
+        ElementoBase a = izquierdo.ejecutar(interprete, marco);
+        ElementoBase b = derecho.ejecutar(interprete, marco);
+        if (esLong(a) && esLong(b)) {
+            return comparar(((Entero) a).valor(), ((Entero) b).valor());
+        }
+        return NodoSi.esVerdadero(aplicar(funcion, a, b, interprete));
+    }
+
+    /**
+     * Indica si el operador sigue siendo la primitiva que este nodo especializa
+     */
+    private boolean esVigente(ElementoBase funcion) {
+        if (funcion != primitivaVerificada) {
+            if (!esPrimitivaOriginal(funcion, simbolo)) {
+                return false;
+            }
+            primitivaVerificada = funcion;
+        }
+        return true;
+    }
+
+    /**
+     * Calcula + - * / sobre long, pidiendo a los operandos aritméticos su valor
+     * sin crear un Entero. Lo que no puede resolverse así (operandos que no son
+     * enteros, desbordamiento, división por cero) lo resuelve la primitiva.
+     * @throws ValorNoLong si la primitiva devuelve algo que no es un entero
+     */
+    private long calcular(ElementoBase funcion, Interprete interprete, Marco marco)
+            throws ArgumentoInvalidoExcepcion {
+        interprete.consumirPaso();
+        long x;
+        try {
+            x = izquierdoAritmetico ? izquierdo.ejecutarLong(interprete, marco)
+                    : valorLong(izquierdo.ejecutar(interprete, marco));
+        } catch (ValorNoLong e) {
+            return valorLong(aplicar(funcion, e.valor, derecho.ejecutar(interprete, marco), interprete));
+        }
+        long y;
+        try {
+            y = derechoAritmetico ? derecho.ejecutarLong(interprete, marco)
+                    : valorLong(derecho.ejecutar(interprete, marco));
+        } catch (ValorNoLong e) {
+            return valorLong(aplicar(funcion, Entero.crear(x), e.valor, interprete));
+        }
+
+        try {
+            return operar(x, y);
+        } catch (ArithmeticException e) {
+            // Desbordamiento: la primitiva promueve el resultado a un entero grande
+            return valorLong(aplicar(funcion, Entero.crear(x), Entero.crear(y), interprete));
+        }
+    }
+
+    /**
+     * Compara dos operandos enteros; con otros operandos decide la primitiva
+     */
+    private boolean comparar(ElementoBase funcion, Interprete interprete, Marco marco)
+            throws ArgumentoInvalidoExcepcion {
+        interprete.consumirPaso();
+        long x;
+        try {
+            x = izquierdoAritmetico ? izquierdo.ejecutarLong(interprete, marco)
+                    : valorLong(izquierdo.ejecutar(interprete, marco));
+        } catch (ValorNoLong e) {
+            return NodoSi.esVerdadero(aplicar(funcion, e.valor, derecho.ejecutar(interprete, marco), interprete));
+        }
+        long y;
+        try {
+            y = derechoAritmetico ? derecho.ejecutarLong(interprete, marco)
+                    : valorLong(derecho.ejecutar(interprete, marco));
+        } catch (ValorNoLong e) {
+            return NodoSi.esVerdadero(aplicar(funcion, Entero.crear(x), e.valor, interprete));
+        }
+        return comparar(x, y);
+    }
+
+    /**
+     * @throws ArithmeticException si el resultado no cabe en un long o se divide por cero
+     */
+    private long operar(long x, long y) {
+        switch (operacion) {
+            case SUMA:
+                return Math.addExact(x, y);
+            case RESTA:
+                return Math.subtractExact(x, y);
+            case PRODUCTO:
+                return Math.multiplyExact(x, y);
+            default:
+                if (x == Long.MIN_VALUE && y == -1) {
+                    throw new ArithmeticException("Desbordamiento de enteros en /");
+                }
+                return x / y;
+        }
+    }
+
+    private boolean comparar(long x, long y) {
+        switch (operacion) {
+            case IGUAL:
+                return x == y;
+            case MENOR:
+                return x < y;
+            default:
+                return x > y;
+        }
+    }
+
+    private static ElementoBase aplicar(ElementoBase funcion, ElementoBase a, ElementoBase b, Interprete interprete)
+            throws ArgumentoInvalidoExcepcion {
+        return ((FuncionAplicable) funcion).aplicar2(a, b, interprete);
+    }
+}
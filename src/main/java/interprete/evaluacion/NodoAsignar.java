@@ -0,0 +1,40 @@
+package interprete.evaluacion;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Simbolo;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+
+/**
+ * Forma especial ASIGNAR. Dentro de una función escribe en el espacio local que el
+ * Analizador reservó para el nombre; en el nivel global escribe en el ambiente.
+ */
+final class NodoAsignar extends Nodo {
+    private final Simbolo nombre;
+    private final int indice;
+    private final Nodo valor;
+
+    /**
+     * @param indice Espacio en el marco actual, o -1 para una asignación global
+     */
+    NodoAsignar(Simbolo nombre, int indice, Nodo valor) {
+        this.nombre = nombre;
+        this.indice = indice;
+        this.valor = valor;
+    }
+
+    @Override
+    public ElementoBase ejecutar(Interprete interprete, Marco marco) throws ArgumentoInvalidoExcepcion {
+        ElementoBase resultado = valor.ejecutar(interprete, marco);
+        vincular(interprete, marco, nombre, indice, resultado);
+        return resultado;
+    }
+
+    static void vincular(Interprete interprete, Marco marco, Simbolo nombre, int indice, ElementoBase valor) {
+        if (indice >= 0) {
+            marco.asignar(0, indice, valor);
+        } else {
+            interprete.definirGlobal(nombre, valor);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package interprete.evaluacion;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+
+/**
+ * Literal, símbolo especial o expresión citada: su valor se conoce al analizar
+ */
+final class NodoConstante extends Nodo {
+    private final ElementoBase valor;
+
+    NodoConstante(ElementoBase valor) {
+        this.valor = valor;
+    }
+
+    ElementoBase getValor() {
+        return valor;
+    }
+
+    @Override
+    public ElementoBase ejecutar(Interprete interprete, Marco marco) {
+        return valor;
+    }
+}
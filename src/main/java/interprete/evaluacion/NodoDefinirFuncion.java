@@ -0,0 +1,45 @@
+package interprete.evaluacion;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Simbolo;
+
+/**
+ * Formas especiales DEF_FUNCION y DEF_FUNCION_MEMO. El cuerpo se analiza una sola
+ * vez; cada ejecución solo crea el cierre que lo une con el marco actual.
+ */
+final class NodoDefinirFuncion extends Nodo {
+    private final Simbolo nombre;
+    private final int indice;
+    private final Simbolo[] nombresLocales;
+    private final int cantidadParametros;
+    private final Nodo cuerpo;
+    private final boolean memorizada;
+    private final ElementoBase definicion;
+
+    NodoDefinirFuncion(Simbolo nombre, int indice, Simbolo[] nombresLocales,
+                       int cantidadParametros, Nodo cuerpo, boolean memorizada, ElementoBase definicion) {
+        this.nombre = nombre;
+        this.indice = indice;
+        this.nombresLocales = nombresLocales;
+        this.cantidadParametros = cantidadParametros;
+        this.cuerpo = cuerpo;
+        this.memorizada = memorizada;
+        this.definicion = definicion;
+    }
+
+    @Override
+    public ElementoBase ejecutar(Interprete interprete, Marco marco) {
+        NodoAsignar.vincular(interprete, marco, nombre, indice, crear(marco));
+        return nombre;
+    }
+
+    /**
+     * Crea la función como cierre sobre el marco dado
+     */
+    FuncionUsuario crear(Marco marco) {
+        return memorizada
+                ? new FuncionMemorizada(nombre, nombresLocales, cantidadParametros, cuerpo, marco, definicion)
+                : new FuncionUsuario(nombre, nombresLocales, cantidadParametros, cuerpo, marco, definicion);
+    }
+}
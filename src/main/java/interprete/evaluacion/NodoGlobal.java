@@ -0,0 +1,46 @@
+package interprete.evaluacion;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Simbolo;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+import interprete.excepciones.VariableNoDefinidaException;
+
+/**
+ * Referencia a una variable que no es local a ninguna función envolvente.
+ * Cada referencia (en particular, el operador de cada llamada) guarda el último
+ * valor que encontró junto con la versión del ambiente global en que lo leyó, y
+ * no vuelve a buscarlo mientras esa versión no cambie; ver ValoresPorPropietario.
+ */
+final class NodoGlobal extends Nodo {
+    private final Simbolo simbolo;
+    private final ValoresPorPropietario valores = new ValoresPorPropietario();
+
+    NodoGlobal(Simbolo simbolo) {
+        this.simbolo = simbolo;
+    }
+
+    Simbolo getSimbolo() {
+        return simbolo;
+    }
+
+    @Override
+    public ElementoBase ejecutar(Interprete interprete, Marco marco) throws ArgumentoInvalidoExcepcion {
+        Object propietario = interprete.getPropietarioGlobal();
+        long version = interprete.getVersionGlobal();
+        ElementoBase valor = valores.obtener(propietario, version);
+        if (valor == null) {
+            valor = buscar(interprete, simbolo);
+            valores.recordar(propietario, version, valor);
+        }
+        return valor;
+    }
+
+    static ElementoBase buscar(Interprete interprete, Simbolo simbolo) throws ArgumentoInvalidoExcepcion {
+        ElementoBase valor = interprete.obtenerGlobal(simbolo);
+        if (valor == null) {
+            throw new VariableNoDefinidaException("Variable no definida: " + simbolo);
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,94 @@
+package interprete.evaluacion;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+import interprete.primitivas.FuncionAplicable;
+
+/**
+ * Aplicación de una función con un número fijo de argumentos ya analizados.
+ * En posición de cola una llamada a función de usuario no se realiza aquí: se
+ * devuelve como LlamadaPendiente para que la complete la función que la contiene.
+ */
+final class NodoLlamada extends Nodo {
+    private final Nodo operador;
+    private final Nodo[] argumentos;
+    private final boolean enCola;
+
+    NodoLlamada(Nodo operador, Nodo[] argumentos, boolean enCola) {
+        this.operador = operador;
+        this.argumentos = argumentos;
+        this.enCola = enCola;
+    }
+
+    Nodo getOperador() {
+        return operador;
+    }
+
+    Nodo[] getArgumentos() {
+        return argumentos;
+    }
+
+    @Override
+    public ElementoBase ejecutar(Interprete interprete, Marco marco) throws ArgumentoInvalidoExcepcion {
+        interprete.consumirPaso();
+
+        ElementoBase funcion = operador.ejecutar(interprete, marco);
+
+        // Verificar si el operador es aplicable como función
+        if (!(funcion instanceof FuncionAplicable)) {
+            throw new ArgumentoInvalidoExcepcion("El operador no es una función: " + funcion);
+        }
+
+        FuncionAplicable aplicable = (FuncionAplicable) funcion;
+
+        if (enCola && funcion instanceof FuncionUsuario) {
+            return llamadaPendiente((FuncionUsuario) funcion, interprete, marco);
+        }
+
+        // Evaluar los argumentos de izquierda a derecha; las aridades pequeñas
+        // no necesitan arreglo ni lista intermedios
+        switch (argumentos.length) {
+            case 0:
+                return aplicable.aplicar0(interprete);
+            case 1:
+                return aplicable.aplicar1(argumentos[0].ejecutar(interprete, marco), interprete);
+            case 2: {
+                ElementoBase a = argumentos[0].ejecutar(interprete, marco);
+                ElementoBase b = argumentos[1].ejecutar(interprete, marco);
+                return aplicable.aplicar2(a, b, interprete);
+            }
+            case 3: {
+                ElementoBase a = argumentos[0].ejecutar(interprete, marco);
+                ElementoBase b = argumentos[1].ejecutar(interprete, marco);
+                ElementoBase c = argumentos[2].ejecutar(interprete, marco);
+                return aplicable.aplicar3(a, b, c, interprete);
+            }
+            default: {
+                ElementoBase[] valores = new ElementoBase[argumentos.length];
+                for (int i = 0; i < argumentos.length; i++) {
+                    valores[i] = argumentos[i].ejecutar(interprete, marco);
+                }
+                return aplicable.aplicarArreglo(valores, interprete);
+            }
+        }
+    }
+
+    /**
+     * Evalúa los argumentos directamente en el marco de la función llamada
+     * y devuelve la llamada sin realizarla
+     */
+    private ElementoBase llamadaPendiente(FuncionUsuario funcion, Interprete interprete, Marco marco)
+            throws ArgumentoInvalidoExcepcion {
+        Marco marcoLlamada = funcion.nuevoMarco();
+        int cantidadParametros = funcion.getCantidadParametros();
+        for (int i = 0; i < argumentos.length; i++) {
+            ElementoBase valor = argumentos[i].ejecutar(interprete, marco);
+            if (i < cantidadParametros) {
+                marcoLlamada.fijar(i, valor);
+            }
+        }
+        funcion.verificarCantidad(argumentos.length);
+        return new LlamadaPendiente(funcion, marcoLlamada);
+    }
+}
@@ -0,0 +1,46 @@
+package interprete.evaluacion;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Simbolo;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+
+/**
+ * Referencia a una variable local resuelta a su dirección léxica (profundidad, índice).
+ * Si el espacio corresponde a una variable creada con ASIGNAR puede no estar asignado
+ * todavía; en ese caso se sigue buscando en los marcos exteriores y en el global.
+ */
+final class NodoLocal extends Nodo {
+    private final Simbolo simbolo;
+    private final int profundidad;
+    private final int indice;
+
+    NodoLocal(Simbolo simbolo, int profundidad, int indice) {
+        this.simbolo = simbolo;
+        this.profundidad = profundidad;
+        this.indice = indice;
+    }
+
+    int getProfundidad() {
+        return profundidad;
+    }
+
+    int getIndice() {
+        return indice;
+    }
+
+    @Override
+    public ElementoBase ejecutar(Interprete interprete, Marco marco) throws ArgumentoInvalidoExcepcion {
+        ElementoBase valor = marco.obtener(profundidad, indice);
+        if (valor != null) {
+            return valor;
+        }
+
+        Marco exterior = marco;
+        for (int i = 0; i <= profundidad; i++) {
+            exterior = exterior.getPadre();
+        }
+        valor = exterior != null ? exterior.buscar(simbolo) : null;
+        return valor != null ? valor : NodoGlobal.buscar(interprete, simbolo);
+    }
+}
@@ -0,0 +1,59 @@
+package interprete.evaluacion;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Simbolo;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+import interprete.primitivas.FuncionAplicable;
+
+/**
+ * Llamada a una primitiva sin efectos cuyos argumentos son todos constantes,
+ * como (* 60 60 24). La primera ejecución calcula el resultado con la primitiva
+ * y las siguientes lo devuelven directamente mientras no cambie el ambiente
+ * global. El resultado se recuerda por propietario de la versión global, como en
+ * NodoGlobal, para que los intérpretes que ejecutan el mismo árbol no se lo
+ * disputen. Si el nombre ya no es la primitiva original se ejecuta la llamada común.
+ */
+final class NodoPlegado extends Nodo {
+    private final Simbolo simbolo;
+    private final Nodo operador;
+    private final Nodo[] argumentos;
+    private final NodoLlamada llamada;
+    private final ValoresPorPropietario resultados = new ValoresPorPropietario();
+
+    /**
+     * @param argumentos Constantes o llamadas ya plegadas
+     * @param llamada La misma llamada sin plegar, para cuando el nombre fue redefinido
+     */
+    NodoPlegado(Simbolo simbolo, Nodo operador, Nodo[] argumentos, NodoLlamada llamada) {
+        this.simbolo = simbolo;
+        this.operador = operador;
+        this.argumentos = argumentos;
+        this.llamada = llamada;
+    }
+
+    @Override
+    public ElementoBase ejecutar(Interprete interprete, Marco marco) throws ArgumentoInvalidoExcepcion {
+        Object propietario = interprete.getPropietarioGlobal();
+        long version = interprete.getVersionGlobal();
+        ElementoBase guardado = resultados.obtener(propietario, version);
+        if (guardado != null) {
+            return guardado;
+        }
+
+        ElementoBase funcion = operador.ejecutar(interprete, marco);
+        if (!esPrimitivaOriginal(funcion, simbolo)) {
+            return llamada.ejecutar(interprete, marco);
+        }
+
+        ElementoBase[] valores = new ElementoBase[argumentos.length];
+        for (int i = 0; i < argumentos.length; i++) {
+            valores[i] = argumentos[i].ejecutar(interprete, marco);
+        }
+
+        // Un error no se recuerda: se vuelve a producir en cada ejecución
+        ElementoBase valor = ((FuncionAplicable) funcion).aplicarArreglo(valores, interprete);
+        resultados.recordar(propietario, version, valor);
+        return valor;
+    }
+}
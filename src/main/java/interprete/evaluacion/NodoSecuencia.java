@@ -0,0 +1,25 @@
+package interprete.evaluacion;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+
+/**
+ * Cuerpo de una función: ejecuta sus expresiones en orden y devuelve la última
+ */
+final class NodoSecuencia extends Nodo {
+    private final Nodo[] expresiones;
+
+    NodoSecuencia(Nodo[] expresiones) {
+        this.expresiones = expresiones;
+    }
+
+    @Override
+    public ElementoBase ejecutar(Interprete interprete, Marco marco) throws ArgumentoInvalidoExcepcion {
+        int ultima = expresiones.length - 1;
+        for (int i = 0; i < ultima; i++) {
+            expresiones[i].ejecutar(interprete, marco);
+        }
+        return expresiones[ultima].ejecutar(interprete, marco);
+    }
+}
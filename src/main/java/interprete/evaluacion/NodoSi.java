@@ -0,0 +1,56 @@
+package interprete.evaluacion;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Entero;
+import interprete.elementos.Simbolo;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+
+/**
+ * Forma especial SI con sus tres partes ya analizadas
+ */
+final class NodoSi extends Nodo {
+    private final Nodo condicion;
+    private final Nodo ramaVerdadera;
+    private final Nodo ramaFalsa;
+    // Solo las comparaciones evitan crear el valor de verdad; otra condición se
+    // ejecuta directamente, sin un marco de pila más
+    private final boolean condicionAritmetica;
+
+    NodoSi(Nodo condicion, Nodo ramaVerdadera, Nodo ramaFalsa) {
+        this.condicion = condicion;
+        this.ramaVerdadera = ramaVerdadera;
+        this.ramaFalsa = ramaFalsa;
+        this.condicionAritmetica = condicion instanceof NodoAritmetico;
+    }
+
+    Nodo getCondicion() {
+        return condicion;
+    }
+
+    Nodo getRamaVerdadera() {
+        return ramaVerdadera;
+    }
+
+    Nodo getRamaFalsa() {
+        return ramaFalsa;
+    }
+
+    @Override
+    public ElementoBase ejecutar(Interprete interprete, Marco marco) throws ArgumentoInvalidoExcepcion {
+        boolean verdadera = condicionAritmetica ? condicion.ejecutarCondicion(interprete, marco)
+                : esVerdadero(condicion.ejecutar(interprete, marco));
+        if (verdadera) {
+            return ramaVerdadera.ejecutar(interprete, marco);
+        } else {
+            return ramaFalsa.ejecutar(interprete, marco);
+        }
+    }
+
+    /**
+     * En Lisp, todo excepto nil se considera verdadero; aquí también el cero es falso
+     */
+    static boolean esVerdadero(ElementoBase valor) {
+        return valor != Simbolo.VACIO && !(valor.esNumerico() && ((Entero) valor).esCero());
+    }
+}
@@ -0,0 +1,17 @@
+package interprete.evaluacion;
+
+import interprete.elementos.ElementoBase;
+
+/**
+ * Señala que un nodo al que se le pidió su valor como long produjo otra cosa.
+ * Lleva el valor ya calculado para que quien lo pidió continúe por el camino
+ * general sin volver a evaluar el nodo. Nunca sale del evaluador.
+ */
+final class ValorNoLong extends RuntimeException {
+    final ElementoBase valor;
+
+    ValorNoLong(ElementoBase valor) {
+        super(null, null, false, false);
+        this.valor = valor;
+    }
+}
@@ -0,0 +1,76 @@
+package interprete.evaluacion;
+
+import interprete.elementos.ElementoBase;
+
+/**
+ * Valores recordados por un nodo, cada uno vigente para un propietario de la versión
+ * global mientras esa versión no cambie (ver Interprete.getPropietarioGlobal). Como un
+ * mismo árbol puede ejecutarse con más de un intérprete, se recuerda un valor por
+ * propietario, hasta MAXIMO_ENTRADAS; los intérpretes que comparten una imagen sin
+ * vinculaciones propias usan todos la misma entrada.
+ *
+ * Las entradas se reemplazan en lugar de modificarse, de modo que quien las esté
+ * recorriendo desde otro hilo nunca ve una a medio escribir.
+ */
+final class ValoresPorPropietario {
+    private static final int MAXIMO_ENTRADAS = 4;
+    private static final Entrada[] SIN_ENTRADAS = new Entrada[0];
+
+    private Entrada[] entradas = SIN_ENTRADAS;
+
+    /**
+     * @return El valor recordado para el propietario en esa versión, o null si no hay
+     */
+    ElementoBase obtener(Object propietario, long version) {
+        for (Entrada entrada : entradas) {
+            if (entrada.propietario == propietario) {
+                return entrada.version == version ? entrada.valor : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reemplaza la entrada del mismo propietario o agrega una nueva
+     */
+    void recordar(Object propietario, long version, ElementoBase valor) {
+        Entrada[] actuales = entradas;
+        Entrada nueva = new Entrada(propietario, version, valor);
+        for (int i = 0; i < actuales.length; i++) {
+            if (actuales[i].propietario == propietario) {
+                Entrada[] copia = actuales.clone();
+                copia[i] = nueva;
+                entradas = copia;
+                return;
+            }
+        }
+
+        if (actuales.length < MAXIMO_ENTRADAS) {
+            Entrada[] copia = new Entrada[actuales.length + 1];
+            System.arraycopy(actuales, 0, copia, 0, actuales.length);
+            copia[actuales.length] = nueva;
+            entradas = copia;
+        } else {
+            // Nodo compartido por demasiados propietarios: se descarta la entrada más antigua
+            Entrada[] copia = new Entrada[MAXIMO_ENTRADAS];
+            System.arraycopy(actuales, 1, copia, 0, MAXIMO_ENTRADAS - 1);
+            copia[MAXIMO_ENTRADAS - 1] = nueva;
+            entradas = copia;
+        }
+    }
+
+    /**
+     * Valor para un propietario, vigente mientras no cambie su versión global
+     */
+    private static final class Entrada {
+        final Object propietario;
+        final long version;
+        final ElementoBase valor;
+
+        Entrada(Object propietario, long version, ElementoBase valor) {
+            this.propietario = propietario;
+            this.version = version;
+            this.valor = valor;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package interprete.excepciones;
+
+/**
+ * Excepción lanzada cuando una evaluación consume todos los pasos que tenía permitidos.
+ * Permite acotar el tiempo de CPU de un script sin depender de hilos ni temporizadores.
+ */
+public class PresupuestoAgotadoException extends ArgumentoInvalidoExcepcion {
+    private final long pasosConsumidos;
+    
+    /**
+     * Construye una nueva excepción de presupuesto agotado
+     * @param mensaje Descripción del error
+     * @param pasos La cantidad de pasos consumidos al agotarse el presupuesto
+     */
+    public PresupuestoAgotadoException(String mensaje, long pasos) {
+        super(mensaje);
+        this.pasosConsumidos = pasos;
+    }
+    
+    /**
+     * @return La cantidad de pasos que se consumieron antes de lanzar la excepción
+     */
+    public long getPasosConsumidos() {
+        return pasosConsumidos;
+    }
+}
@@ -2,10 +2,15 @@ package interprete.primitivas;
 
 import interprete.Interprete;
 import interprete.elementos.ElementoBase;
+import interprete.elementos.Enlace;
+import interprete.elementos.Simbolo;
 import interprete.excepciones.ArgumentoInvalidoExcepcion;
 
 /**
- * Interfaz para elementos que pueden ser aplicados como funciones
+ * Interfaz para elementos que pueden ser aplicados como funciones.
+ * El evaluador usa las entradas de aridad fija (aplicar0 a aplicar3) y
+ * aplicarArreglo; la forma con lista queda para llamadas genéricas como APLICAR.
+ * Las implementaciones predeterminadas convierten cada forma en la de lista.
  */
 public interface FuncionAplicable {
     /**
@@ -16,4 +21,35 @@ public interface FuncionAplicable {
      */
     ElementoBase aplicar(ElementoBase argumentos, Interprete interprete) 
             throws ArgumentoInvalidoExcepcion;
-}
\ No newline at end of file
+
+    /**
+     * Aplica la función a un arreglo de argumentos.
+     * La función no debe guardar ni modificar el arreglo.
+     */
+    default ElementoBase aplicarArreglo(ElementoBase[] argumentos, Interprete interprete)
+            throws ArgumentoInvalidoExcepcion {
+        ElementoBase lista = Simbolo.VACIO;
+        for (int i = argumentos.length - 1; i >= 0; i--) {
+            lista = new Enlace(argumentos[i], lista);
+        }
+        return aplicar(lista, interprete);
+    }
+
+    default ElementoBase aplicar0(Interprete interprete) throws ArgumentoInvalidoExcepcion {
+        return aplicar(Simbolo.VACIO, interprete);
+    }
+
+    default ElementoBase aplicar1(ElementoBase a, Interprete interprete) throws ArgumentoInvalidoExcepcion {
+        return aplicar(new Enlace(a, Simbolo.VACIO), interprete);
+    }
+
+    default ElementoBase aplicar2(ElementoBase a, ElementoBase b, Interprete interprete)
+            throws ArgumentoInvalidoExcepcion {
+        return aplicar(new Enlace(a, new Enlace(b, Simbolo.VACIO)), interprete);
+    }
+
+    default ElementoBase aplicar3(ElementoBase a, ElementoBase b, ElementoBase c, Interprete interprete)
+            throws ArgumentoInvalidoExcepcion {
+        return aplicar(new Enlace(a, new Enlace(b, new Enlace(c, Simbolo.VACIO))), interprete);
+    }
+}
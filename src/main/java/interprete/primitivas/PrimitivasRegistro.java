@@ -2,55 +2,85 @@ package interprete.primitivas;
 
 import interprete.Interprete;
 import interprete.elementos.*;
+import interprete.evaluacion.FuncionMemorizada;
 import interprete.excepciones.*;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Gestiona el registro y la implementación de las funciones primitivas
+ * Gestiona el registro y la implementación de las funciones primitivas.
+ * Las primitivas no guardan ningún intérprete: las que lo necesitan reciben el que
+ * las llama, así que una ImagenGlobal las comparte entre todos sus intérpretes.
  */
 public class PrimitivasRegistro {
-    private Interprete interprete;
-    
-    public PrimitivasRegistro(Interprete interprete) {
-        this.interprete = interprete;
-    }
+    private static final ElementoBase[] SIN_ARGUMENTOS = new ElementoBase[0];
     
     /**
      * Registra todas las primitivas en el ambiente
      */
     public void registrarTodasLasPrimitivas(Map<Simbolo, ElementoBase> ambiente) {
         // Operaciones aritméticas
-        registrarPrimitiva(ambiente, Simbolo.SUMAR, new Primitiva(this::sumar, Simbolo.SUMAR));
-        registrarPrimitiva(ambiente, Simbolo.RESTAR, new Primitiva(this::restar, Simbolo.RESTAR));
-        registrarPrimitiva(ambiente, Simbolo.MULTIPLICAR, new Primitiva(this::multiplicar, Simbolo.MULTIPLICAR));
-        registrarPrimitiva(ambiente, Simbolo.DIVIDIR, new Primitiva(this::dividir, Simbolo.DIVIDIR));
+        registrarPrimitiva(ambiente, Simbolo.SUMAR, new Primitiva(this::sumar, null, this::sumarDos, Simbolo.SUMAR));
+        registrarPrimitiva(ambiente, Simbolo.RESTAR, new Primitiva(this::restar, this::negar, this::restarDos, Simbolo.RESTAR));
+        registrarPrimitiva(ambiente, Simbolo.MULTIPLICAR, new Primitiva(this::multiplicar, null, this::multiplicarDos, Simbolo.MULTIPLICAR));
+        registrarPrimitiva(ambiente, Simbolo.DIVIDIR, new Primitiva(this::dividir, null, this::dividirDos, Simbolo.DIVIDIR));
         
         // Operaciones lógicas
         registrarPrimitiva(ambiente, Simbolo.Y, new Primitiva(this::y, Simbolo.Y));
         registrarPrimitiva(ambiente, Simbolo.O, new Primitiva(this::o, Simbolo.O));
-        registrarPrimitiva(ambiente, Simbolo.NO, new Primitiva(this::no, Simbolo.NO));
+        registrarPrimitiva(ambiente, Simbolo.NO, new Primitiva(this::no, this::noUno, null, Simbolo.NO));
         
         // Comparaciones
-        registrarPrimitiva(ambiente, Simbolo.IGUAL_NUM, new Primitiva(this::igual, Simbolo.IGUAL_NUM));
-        registrarPrimitiva(ambiente, Simbolo.MENOR, new Primitiva(this::menor, Simbolo.MENOR));
-        registrarPrimitiva(ambiente, Simbolo.MAYOR, new Primitiva(this::mayor, Simbolo.MAYOR));
+        registrarPrimitiva(ambiente, Simbolo.IGUAL_NUM, new Primitiva(this::igual, null, this::igualDos, Simbolo.IGUAL_NUM));
+        registrarPrimitiva(ambiente, Simbolo.MENOR, new Primitiva(this::menor, null, this::menorDos, Simbolo.MENOR));
+        registrarPrimitiva(ambiente, Simbolo.MAYOR, new Primitiva(this::mayor, null, this::mayorDos, Simbolo.MAYOR));
         
         // Operaciones de lista
-        registrarPrimitiva(ambiente, Simbolo.PRIMERO, new Primitiva(this::primero, Simbolo.PRIMERO));
-        registrarPrimitiva(ambiente, Simbolo.RESTO, new Primitiva(this::resto, Simbolo.RESTO));
-        registrarPrimitiva(ambiente, Simbolo.ENLAZAR, new Primitiva(this::enlazar, Simbolo.ENLAZAR));
+        registrarPrimitiva(ambiente, Simbolo.PRIMERO, new Primitiva(this::primero, this::primeroUno, null, Simbolo.PRIMERO));
+        registrarPrimitiva(ambiente, Simbolo.RESTO, new Primitiva(this::resto, this::restoUno, null, Simbolo.RESTO));
+        registrarPrimitiva(ambiente, Simbolo.ENLAZAR, new Primitiva(this::enlazar, null, Enlace::new, Simbolo.ENLAZAR));
         registrarPrimitiva(ambiente, Simbolo.LISTA, new Primitiva(this::lista, Simbolo.LISTA));
         
         // Verificación de tipos
-        registrarPrimitiva(ambiente, Simbolo.NULO, new Primitiva(this::esNulo, Simbolo.NULO));
-        registrarPrimitiva(ambiente, Simbolo.ES_LISTA, new Primitiva(this::esLista, Simbolo.ES_LISTA));
-        registrarPrimitiva(ambiente, Simbolo.ES_SIMBOLO, new Primitiva(this::esSimbolo, Simbolo.ES_SIMBOLO));
-        registrarPrimitiva(ambiente, Simbolo.ES_NUMERICO, new Primitiva(this::esNumerico, Simbolo.ES_NUMERICO));
+        registrarPrimitiva(ambiente, Simbolo.NULO, new Primitiva(this::esNulo, this::esNuloUno, null, Simbolo.NULO));
+        registrarPrimitiva(ambiente, Simbolo.ES_LISTA, new Primitiva(this::esLista, this::esListaUno, null, Simbolo.ES_LISTA));
+        registrarPrimitiva(ambiente, Simbolo.ES_SIMBOLO, new Primitiva(this::esSimbolo, this::esSimboloUno, null, Simbolo.ES_SIMBOLO));
+        registrarPrimitiva(ambiente, Simbolo.ES_NUMERICO, new Primitiva(this::esNumerico, this::esNumericoUno, null, Simbolo.ES_NUMERICO));
+        
+        // Vectores y tablas
+        registrarPrimitiva(ambiente, Simbolo.VECTOR, new Primitiva(Arreglo::new, Simbolo.VECTOR));
+        registrarPrimitiva(ambiente, Simbolo.HACER_VECTOR, new Primitiva(this::hacerVector, Simbolo.HACER_VECTOR));
+        registrarPrimitiva(ambiente, Simbolo.ELEMENTO, new Primitiva(this::elemento, null, this::elementoDos, Simbolo.ELEMENTO));
+        registrarPrimitiva(ambiente, Simbolo.FIJAR_ELEMENTO, new Primitiva(this::fijarElemento, Simbolo.FIJAR_ELEMENTO));
+        registrarPrimitiva(ambiente, Simbolo.AGREGAR, new Primitiva(this::agregar, null, this::agregarDos, Simbolo.AGREGAR));
+        registrarPrimitiva(ambiente, Simbolo.TABLA, new Primitiva(this::tabla, Simbolo.TABLA));
+        registrarPrimitiva(ambiente, Simbolo.OBTENER, new Primitiva(this::obtener, null, this::obtenerDos, Simbolo.OBTENER));
+        registrarPrimitiva(ambiente, Simbolo.GUARDAR, new Primitiva(this::guardar, Simbolo.GUARDAR));
+        registrarPrimitiva(ambiente, Simbolo.BORRAR, new Primitiva(this::borrar, null, this::borrarDos, Simbolo.BORRAR));
+        registrarPrimitiva(ambiente, Simbolo.CLAVES, new Primitiva(this::claves, this::clavesUno, null, Simbolo.CLAVES));
+        registrarPrimitiva(ambiente, Simbolo.LONGITUD, new Primitiva(this::longitud, this::longitudUno, null, Simbolo.LONGITUD));
+        registrarPrimitiva(ambiente, Simbolo.A_LISTA, new Primitiva(this::aLista, this::aListaUno, null, Simbolo.A_LISTA));
+        registrarPrimitiva(ambiente, Simbolo.RECORRER, new Primitiva(this::recorrer, Simbolo.RECORRER));
+        
+        // Aplicación genérica
+        registrarPrimitiva(ambiente, Simbolo.APLICAR, new Primitiva(this::aplicar, Simbolo.APLICAR));
+        registrarPrimitiva(ambiente, Simbolo.MAPEAR, new Primitiva(this::mapear, Simbolo.MAPEAR));
+        registrarPrimitiva(ambiente, Simbolo.PMAPEAR, new Primitiva(this::pmapear, Simbolo.PMAPEAR));
+        
+        // Funciones memorizadas
+        registrarPrimitiva(ambiente, Simbolo.LIMPIAR_MEMO, new Primitiva(this::limpiarMemo, Simbolo.LIMPIAR_MEMO));
+        registrarPrimitiva(ambiente, Simbolo.INFO_MEMO, new Primitiva(this::infoMemo, Simbolo.INFO_MEMO));
+        registrarPrimitiva(ambiente, Simbolo.CONFIGURAR_MEMO, new Primitiva(this::configurarMemo, Simbolo.CONFIGURAR_MEMO));
         
         // E/S
         registrarPrimitiva(ambiente, Simbolo.IMPRIMIR, new Primitiva(this::imprimir, Simbolo.IMPRIMIR));
+        registrarPrimitiva(ambiente, Simbolo.CARGAR, new Primitiva(this::cargar, Simbolo.CARGAR));
     }
     
     /**
@@ -63,124 +93,128 @@ public class PrimitivasRegistro {
     /**
      * Implementaciones de las primitivas
      */
-    private ElementoBase sumar(ElementoBase args) throws ArgumentoInvalidoExcepcion {
-        long resultado = 0;
+    private ElementoBase sumar(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        Entero resultado = Entero.CERO;
         
         for (ElementoBase arg : args) {
-            if (!arg.esNumerico()) {
-                throw new TipoInvalidoException("Los argumentos de + deben ser números");
-            }
-            resultado += ((Entero) arg).valor();
+            resultado = Entero.sumar(resultado, numero(arg, "+"));
         }
         
-        return Entero.crear(resultado);
+        return resultado;
+    }
+    
+    private ElementoBase sumarDos(ElementoBase a, ElementoBase b) throws ArgumentoInvalidoExcepcion {
+        return Entero.sumar(numero(a, "+"), numero(b, "+"));
     }
     
-    private ElementoBase restar(ElementoBase args) throws ArgumentoInvalidoExcepcion {
-        if (args == Simbolo.VACIO) {
+    private ElementoBase restar(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length == 0) {
             throw new ArgumentoInvalidoExcepcion("- requiere al menos un argumento");
         }
         
-        if (!args.primero().esNumerico()) {
-            throw new TipoInvalidoException("Los argumentos de - deben ser números");
-        }
-        
-        long resultado = ((Entero) args.primero()).valor();
+        Entero resultado = numero(args[0], "-");
         
         // Si solo hay un argumento, devuelve su negativo
-        if (args.resto() == Simbolo.VACIO) {
-            return Entero.crear(-resultado);
+        if (args.length == 1) {
+            return Entero.negar(resultado);
         }
         
         // Si hay más argumentos, resta cada uno
-        ElementoBase resto = args.resto();
-        for (ElementoBase arg : resto) {
-            if (!arg.esNumerico()) {
-                throw new TipoInvalidoException("Los argumentos de - deben ser números");
-            }
-            resultado -= ((Entero) arg).valor();
+        for (int i = 1; i < args.length; i++) {
+            resultado = Entero.restar(resultado, numero(args[i], "-"));
         }
         
-        return Entero.crear(resultado);
+        return resultado;
+    }
+    
+    private ElementoBase negar(ElementoBase a) throws ArgumentoInvalidoExcepcion {
+        return Entero.negar(numero(a, "-"));
+    }
+    
+    private ElementoBase restarDos(ElementoBase a, ElementoBase b) throws ArgumentoInvalidoExcepcion {
+        return Entero.restar(numero(a, "-"), numero(b, "-"));
     }
     
-    private ElementoBase multiplicar(ElementoBase args) throws ArgumentoInvalidoExcepcion {
-        long resultado = 1;
+    private ElementoBase multiplicar(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        Entero resultado = Entero.UNO;
         
         for (ElementoBase arg : args) {
-            if (!arg.esNumerico()) {
-                throw new TipoInvalidoException("Los argumentos de * deben ser números");
-            }
-            resultado *= ((Entero) arg).valor();
+            resultado = Entero.multiplicar(resultado, numero(arg, "*"));
         }
         
-        return Entero.crear(resultado);
+        return resultado;
+    }
+    
+    private ElementoBase multiplicarDos(ElementoBase a, ElementoBase b) throws ArgumentoInvalidoExcepcion {
+        return Entero.multiplicar(numero(a, "*"), numero(b, "*"));
     }
     
-    private ElementoBase dividir(ElementoBase args) throws ArgumentoInvalidoExcepcion {
-        if (args == Simbolo.VACIO || args.resto() == Simbolo.VACIO) {
+    private ElementoBase dividir(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length < 2) {
             throw new ArgumentoInvalidoExcepcion("/ requiere al menos dos argumentos");
         }
         
-        if (!args.primero().esNumerico() || !args.resto().primero().esNumerico()) {
-            throw new TipoInvalidoException("Los argumentos de / deben ser números");
-        }
-        
-        long numerador = ((Entero) args.primero()).valor();
-        long denominador = ((Entero) args.resto().primero()).valor();
+        return dividirDos(args[0], args[1]);
+    }
+    
+    private ElementoBase dividirDos(ElementoBase a, ElementoBase b) throws ArgumentoInvalidoExcepcion {
+        Entero numerador = numero(a, "/");
+        Entero denominador = numero(b, "/");
         
-        if (denominador == 0) {
+        if (denominador.esCero()) {
             throw new ArithmeticException("División por cero");
         }
         
-        return Entero.crear(numerador / denominador);
+        return Entero.dividir(numerador, denominador);
     }
     
-    private ElementoBase y(ElementoBase args) throws ArgumentoInvalidoExcepcion {
+    private ElementoBase y(ElementoBase[] args) {
         for (ElementoBase arg : args) {
-            if (arg == Simbolo.VACIO || (arg.esNumerico() && ((Entero)arg).valor() == 0)) {
+            if (arg == Simbolo.VACIO || (arg.esNumerico() && ((Entero)arg).esCero())) {
                 return Entero.CERO;
             }
         }
         return Simbolo.VERDADERO;
     }
     
-    private ElementoBase o(ElementoBase args) throws ArgumentoInvalidoExcepcion {
+    private ElementoBase o(ElementoBase[] args) {
         for (ElementoBase arg : args) {
-            if (arg != Simbolo.VACIO && !(arg.esNumerico() && ((Entero)arg).valor() == 0)) {
+            if (arg != Simbolo.VACIO && !(arg.esNumerico() && ((Entero)arg).esCero())) {
                 return Simbolo.VERDADERO;
             }
         }
         return Entero.CERO;
     }
     
-    private ElementoBase no(ElementoBase args) throws ArgumentoInvalidoExcepcion {
-        if (args == Simbolo.VACIO || args.resto() != Simbolo.VACIO) {
+    private ElementoBase no(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 1) {
             throw new ArgumentoInvalidoExcepcion("NO requiere exactamente un argumento");
         }
         
-        ElementoBase arg = args.primero();
-        if (arg == Simbolo.VACIO || (arg.esNumerico() && ((Entero)arg).valor() == 0)) {
+        return noUno(args[0]);
+    }
+    
+    private ElementoBase noUno(ElementoBase arg) {
+        if (arg == Simbolo.VACIO || (arg.esNumerico() && ((Entero)arg).esCero())) {
             return Simbolo.VERDADERO;
         } else {
             return Entero.CERO;
         }
     }
     
-    private ElementoBase igual(ElementoBase args) throws ArgumentoInvalidoExcepcion {
-        if (args == Simbolo.VACIO || args.resto() == Simbolo.VACIO) {
+    private ElementoBase igual(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length < 2) {
             throw new ArgumentoInvalidoExcepcion("= requiere al menos dos argumentos");
         }
         
-        if (!args.primero().esNumerico() || !args.resto().primero().esNumerico()) {
+        if (!args[0].esNumerico() || !args[1].esNumerico()) {
             throw new TipoInvalidoException("Los argumentos de = deben ser números");
         }
         
-        long valor = ((Entero) args.primero()).valor();
-        ElementoBase resto = args.resto();
+        Entero valor = (Entero) args[0];
         
-        for (ElementoBase arg : resto) {
-            if (!arg.esNumerico() || ((Entero) arg).valor() != valor) {
+        for (int i = 1; i < args.length; i++) {
+            if (!args[i].esNumerico() || Entero.comparar((Entero) args[i], valor) != 0) {
                 return Entero.CERO;
             }
         }
@@ -188,70 +222,63 @@ public class PrimitivasRegistro {
         return Simbolo.VERDADERO;
     }
     
-    private ElementoBase menor(ElementoBase args) throws ArgumentoInvalidoExcepcion {
-        if (args == Simbolo.VACIO || args.resto() == Simbolo.VACIO) {
+    private ElementoBase igualDos(ElementoBase a, ElementoBase b) throws ArgumentoInvalidoExcepcion {
+        return Entero.comparar(numero(a, "="), numero(b, "=")) == 0 ? Simbolo.VERDADERO : Entero.CERO;
+    }
+    
+    private ElementoBase menor(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length < 2) {
             throw new ArgumentoInvalidoExcepcion("< requiere al menos dos argumentos");
         }
         
-        if (!args.primero().esNumerico() || !args.resto().primero().esNumerico()) {
-            throw new TipoInvalidoException("Los argumentos de < deben ser números");
-        }
-        
-        long anterior = ((Entero) args.primero()).valor();
-        ElementoBase actual = args.resto();
+        Entero anterior = numero(args[0], "<");
         
-        while (actual != Simbolo.VACIO) {
-            if (!actual.primero().esNumerico()) {
-                throw new TipoInvalidoException("Los argumentos de < deben ser números");
-            }
-            
-            long valorActual = ((Entero) actual.primero()).valor();
-            if (anterior >= valorActual) {
+        for (int i = 1; i < args.length; i++) {
+            Entero valorActual = numero(args[i], "<");
+            if (Entero.comparar(anterior, valorActual) >= 0) {
                 return Entero.CERO;
             }
-            
             anterior = valorActual;
-            actual = actual.resto();
         }
         
         return Simbolo.VERDADERO;
     }
     
-    private ElementoBase mayor(ElementoBase args) throws ArgumentoInvalidoExcepcion {
-        if (args == Simbolo.VACIO || args.resto() == Simbolo.VACIO) {
+    private ElementoBase menorDos(ElementoBase a, ElementoBase b) throws ArgumentoInvalidoExcepcion {
+        return Entero.comparar(numero(a, "<"), numero(b, "<")) < 0 ? Simbolo.VERDADERO : Entero.CERO;
+    }
+    
+    private ElementoBase mayor(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length < 2) {
             throw new ArgumentoInvalidoExcepcion("> requiere al menos dos argumentos");
         }
         
-        if (!args.primero().esNumerico() || !args.resto().primero().esNumerico()) {
-            throw new TipoInvalidoException("Los argumentos de > deben ser números");
-        }
-        
-        long anterior = ((Entero) args.primero()).valor();
-        ElementoBase actual = args.resto();
+        Entero anterior = numero(args[0], ">");
         
-        while (actual != Simbolo.VACIO) {
-            if (!actual.primero().esNumerico()) {
-                throw new TipoInvalidoException("Los argumentos de > deben ser números");
-            }
-            
-            long valorActual = ((Entero) actual.primero()).valor();
-            if (anterior <= valorActual) {
+        for (int i = 1; i < args.length; i++) {
+            Entero valorActual = numero(args[i], ">");
+            if (Entero.comparar(anterior, valorActual) <= 0) {
                 return Entero.CERO;
             }
-            
             anterior = valorActual;
-            actual = actual.resto();
         }
         
         return Simbolo.VERDADERO;
     }
     
-    private ElementoBase primero(ElementoBase args) throws ArgumentoInvalidoExcepcion {
-        if (args == Simbolo.VACIO || args.resto() != Simbolo.VACIO) {
+    private ElementoBase mayorDos(ElementoBase a, ElementoBase b) throws ArgumentoInvalidoExcepcion {
+        return Entero.comparar(numero(a, ">"), numero(b, ">")) > 0 ? Simbolo.VERDADERO : Entero.CERO;
+    }
+    
+    private ElementoBase primero(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 1) {
             throw new ArgumentoInvalidoExcepcion("PRIMERO requiere exactamente un argumento");
         }
         
-        ElementoBase lista = args.primero();
+        return primeroUno(args[0]);
+    }
+    
+    private ElementoBase primeroUno(ElementoBase lista) throws ArgumentoInvalidoExcepcion {
         if (lista.esAtomico()) {
             throw new TipoInvalidoException("PRIMERO requiere una lista como argumento");
         }
@@ -259,12 +286,15 @@ public class PrimitivasRegistro {
         return lista.primero();
     }
     
-    private ElementoBase resto(ElementoBase args) throws ArgumentoInvalidoExcepcion {
-        if (args == Simbolo.VACIO || args.resto() != Simbolo.VACIO) {
+    private ElementoBase resto(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 1) {
             throw new ArgumentoInvalidoExcepcion("RESTO requiere exactamente un argumento");
         }
         
-        ElementoBase lista = args.primero();
+        return restoUno(args[0]);
+    }
+    
+    private ElementoBase restoUno(ElementoBase lista) throws ArgumentoInvalidoExcepcion {
         if (lista.esAtomico()) {
             throw new TipoInvalidoException("RESTO requiere una lista como argumento");
         }
@@ -272,75 +302,391 @@ public class PrimitivasRegistro {
         return lista.resto();
     }
     
-    private ElementoBase enlazar(ElementoBase args) throws ArgumentoInvalidoExcepcion {
-        if (args == Simbolo.VACIO || args.resto() == Simbolo.VACIO || args.resto().resto() != Simbolo.VACIO) {
+    private ElementoBase enlazar(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 2) {
             throw new ArgumentoInvalidoExcepcion("ENLAZAR requiere exactamente dos argumentos");
         }
         
-        ElementoBase primero = args.primero();
-        ElementoBase segundo = args.resto().primero();
+        return new Enlace(args[0], args[1]);
+    }
+    
+    private ElementoBase lista(ElementoBase[] args) {
+        return ListaArreglo.crear(args, args.length, Simbolo.VACIO);
+    }
+    
+    private ElementoBase esNulo(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 1) {
+            throw new ArgumentoInvalidoExcepcion("NULO? requiere exactamente un argumento");
+        }
+        
+        return esNuloUno(args[0]);
+    }
+    
+    private ElementoBase esNuloUno(ElementoBase arg) {
+        return arg == Simbolo.VACIO ? Simbolo.VERDADERO : Entero.CERO;
+    }
+    
+    private ElementoBase esLista(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 1) {
+            throw new ArgumentoInvalidoExcepcion("LISTA? requiere exactamente un argumento");
+        }
+        
+        return esListaUno(args[0]);
+    }
+    
+    private ElementoBase esListaUno(ElementoBase arg) {
+        return !arg.esAtomico() || arg == Simbolo.VACIO
+               ? Simbolo.VERDADERO : Entero.CERO;
+    }
+    
+    private ElementoBase esSimbolo(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 1) {
+            throw new ArgumentoInvalidoExcepcion("SIMBOLO? requiere exactamente un argumento");
+        }
         
-        return new Enlace(primero, segundo);
+        return esSimboloUno(args[0]);
+    }
+    
+    private ElementoBase esSimboloUno(ElementoBase arg) {
+        return arg.esSimbolo() ? Simbolo.VERDADERO : Entero.CERO;
     }
     
-    private ElementoBase lista(ElementoBase args) {
-        ElementoBase resultado = Simbolo.VACIO;
+    private ElementoBase esNumerico(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 1) {
+            throw new ArgumentoInvalidoExcepcion("NUMERO? requiere exactamente un argumento");
+        }
         
-        // Construir la lista desde atrás hacia adelante
-        ElementoBase actual = args;
-        Stack<ElementoBase> pila = new Stack<>();
+        return esNumericoUno(args[0]);
+    }
+    
+    private ElementoBase esNumericoUno(ElementoBase arg) {
+        return arg.esNumerico() ? Simbolo.VERDADERO : Entero.CERO;
+    }
+    
+    private ElementoBase hacerVector(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 1 && args.length != 2) {
+            throw new ArgumentoInvalidoExcepcion("HACER_VECTOR requiere uno o dos argumentos");
+        }
         
-        while (actual != Simbolo.VACIO) {
-            try {
-                pila.push(actual.primero());
+        int longitud = indice(args[0], "HACER_VECTOR");
+        return Arreglo.lleno(longitud, args.length == 2 ? args[1] : Simbolo.VACIO);
+    }
+    
+    private ElementoBase elemento(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 2) {
+            throw new ArgumentoInvalidoExcepcion("ELEMENTO requiere exactamente dos argumentos");
+        }
+        
+        return elementoDos(args[0], args[1]);
+    }
+    
+    private ElementoBase elementoDos(ElementoBase vector, ElementoBase posicion) throws ArgumentoInvalidoExcepcion {
+        return vector(vector, "ELEMENTO").obtener(indice(posicion, "ELEMENTO"));
+    }
+    
+    private ElementoBase fijarElemento(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 3) {
+            throw new ArgumentoInvalidoExcepcion("FIJAR_ELEMENTO requiere exactamente tres argumentos");
+        }
+        
+        vector(args[0], "FIJAR_ELEMENTO").fijar(indice(args[1], "FIJAR_ELEMENTO"), args[2]);
+        return args[2];
+    }
+    
+    private ElementoBase agregar(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 2) {
+            throw new ArgumentoInvalidoExcepcion("AGREGAR requiere exactamente dos argumentos");
+        }
+        
+        return agregarDos(args[0], args[1]);
+    }
+    
+    private ElementoBase agregarDos(ElementoBase vector, ElementoBase valor) throws ArgumentoInvalidoExcepcion {
+        Arreglo arreglo = vector(vector, "AGREGAR");
+        arreglo.agregar(valor);
+        return arreglo;
+    }
+    
+    private ElementoBase tabla(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length % 2 != 0) {
+            throw new ArgumentoInvalidoExcepcion("TABLA requiere pares de clave y valor");
+        }
+        
+        TablaHash tabla = new TablaHash();
+        for (int i = 0; i < args.length; i += 2) {
+            tabla.guardar(clave(args[i], "TABLA"), args[i + 1]);
+        }
+        return tabla;
+    }
+    
+    private ElementoBase obtener(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 2 && args.length != 3) {
+            throw new ArgumentoInvalidoExcepcion("OBTENER requiere dos o tres argumentos");
+        }
+        
+        ElementoBase valor = tabla(args[0], "OBTENER").obtener(clave(args[1], "OBTENER"));
+        if (valor == null) {
+            return args.length == 3 ? args[2] : Simbolo.VACIO;
+        }
+        return valor;
+    }
+    
+    private ElementoBase obtenerDos(ElementoBase tabla, ElementoBase clave) throws ArgumentoInvalidoExcepcion {
+        ElementoBase valor = tabla(tabla, "OBTENER").obtener(clave(clave, "OBTENER"));
+        return valor != null ? valor : Simbolo.VACIO;
+    }
+    
+    private ElementoBase guardar(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 3) {
+            throw new ArgumentoInvalidoExcepcion("GUARDAR requiere exactamente tres argumentos");
+        }
+        
+        tabla(args[0], "GUARDAR").guardar(clave(args[1], "GUARDAR"), args[2]);
+        return args[2];
+    }
+    
+    private ElementoBase borrar(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 2) {
+            throw new ArgumentoInvalidoExcepcion("BORRAR requiere exactamente dos argumentos");
+        }
+        
+        return borrarDos(args[0], args[1]);
+    }
+    
+    private ElementoBase borrarDos(ElementoBase tabla, ElementoBase clave) throws ArgumentoInvalidoExcepcion {
+        return tabla(tabla, "BORRAR").borrar(clave(clave, "BORRAR")) ? Simbolo.VERDADERO : Entero.CERO;
+    }
+    
+    private ElementoBase claves(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 1) {
+            throw new ArgumentoInvalidoExcepcion("CLAVES requiere exactamente un argumento");
+        }
+        
+        return clavesUno(args[0]);
+    }
+    
+    private ElementoBase clavesUno(ElementoBase tabla) throws ArgumentoInvalidoExcepcion {
+        ListaEnConstruccion resultado = new ListaEnConstruccion();
+        for (ElementoBase clave : tabla(tabla, "CLAVES")) {
+            resultado.agregar(clave);
+        }
+        return resultado.lista();
+    }
+    
+    private ElementoBase longitud(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 1) {
+            throw new ArgumentoInvalidoExcepcion("LONGITUD requiere exactamente un argumento");
+        }
+        
+        return longitudUno(args[0]);
+    }
+    
+    private ElementoBase longitudUno(ElementoBase arg) throws ArgumentoInvalidoExcepcion {
+        if (arg instanceof Arreglo) {
+            return Entero.crear(((Arreglo) arg).longitud());
+        }
+        if (arg instanceof TablaHash) {
+            return Entero.crear(((TablaHash) arg).longitud());
+        }
+        if (arg.esTexto()) {
+            return Entero.crear(((Texto) arg).valor().length());
+        }
+        if (!esListaNoVacia(arg) && arg != Simbolo.VACIO) {
+            throw new TipoInvalidoException("LONGITUD requiere una lista, un vector, una tabla o un texto");
+        }
+        
+        long longitud = 0;
+        ElementoBase actual = arg;
+        while (esListaNoVacia(actual)) {
+            if (actual instanceof ListaArreglo) {
+                // Un tramo en arreglo se cuenta sin recorrerlo
+                longitud += ((ListaArreglo) actual).longitud();
+                actual = ((ListaArreglo) actual).cola();
+            } else {
+                longitud++;
                 actual = actual.resto();
-            } catch (ArgumentoInvalidoExcepcion e) {
-                break;
             }
         }
+        return Entero.crear(longitud);
+    }
+    
+    private ElementoBase aLista(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 1) {
+            throw new ArgumentoInvalidoExcepcion("A_LISTA requiere exactamente un argumento");
+        }
+        
+        return aListaUno(args[0]);
+    }
+    
+    /**
+     * Los elementos de un vector, o los pares (clave . valor) de una tabla, como lista
+     */
+    private ElementoBase aListaUno(ElementoBase arg) throws ArgumentoInvalidoExcepcion {
+        ListaEnConstruccion resultado = new ListaEnConstruccion();
+        if (arg instanceof TablaHash) {
+            for (Map.Entry<ElementoBase, ElementoBase> entrada : ((TablaHash) arg).entradas()) {
+                resultado.agregar(new Enlace(entrada.getKey(), entrada.getValue()));
+            }
+        } else {
+            for (ElementoBase elemento : vector(arg, "A_LISTA")) {
+                resultado.agregar(elemento);
+            }
+        }
+        return resultado.lista();
+    }
+    
+    /**
+     * Aplica la función a cada elemento de una lista o un vector, o a cada clave
+     * y valor de una tabla, por sus efectos
+     */
+    private ElementoBase recorrer(ElementoBase[] args, Interprete interprete) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 2) {
+            throw new ArgumentoInvalidoExcepcion("RECORRER requiere exactamente dos argumentos");
+        }
+        
+        FuncionAplicable aplicable = funcion(args[0], "RECORRER");
+        ElementoBase coleccion = args[1];
         
-        // Construir la lista en orden correcto
-        while (!pila.empty()) {
-            resultado = new Enlace(pila.pop(), resultado);
+        if (coleccion instanceof TablaHash) {
+            // Se copian las entradas para que la función pueda modificar la tabla
+            List<Map.Entry<ElementoBase, ElementoBase>> entradas = new ArrayList<>();
+            for (Map.Entry<ElementoBase, ElementoBase> entrada : ((TablaHash) coleccion).entradas()) {
+                entradas.add(entrada);
+            }
+            for (Map.Entry<ElementoBase, ElementoBase> entrada : entradas) {
+                aplicable.aplicar2(entrada.getKey(), entrada.getValue(), interprete);
+            }
+        } else if (coleccion instanceof Arreglo) {
+            Arreglo arreglo = (Arreglo) coleccion;
+            for (int i = 0; i < arreglo.longitud(); i++) {
+                aplicable.aplicar1(arreglo.obtener(i), interprete);
+            }
+        } else if (esListaNoVacia(coleccion) || coleccion == Simbolo.VACIO) {
+            for (ElementoBase actual = coleccion; esListaNoVacia(actual); actual = actual.resto()) {
+                aplicable.aplicar1(actual.primero(), interprete);
+            }
+        } else {
+            throw new TipoInvalidoException("RECORRER requiere una lista, un vector o una tabla");
         }
         
-        return resultado;
+        return Simbolo.VACIO;
     }
     
-    private ElementoBase esNulo(ElementoBase args) throws ArgumentoInvalidoExcepcion {
-        if (args == Simbolo.VACIO || args.resto() != Simbolo.VACIO) {
-            throw new ArgumentoInvalidoExcepcion("NULO? requiere exactamente un argumento");
+    private ElementoBase aplicar(ElementoBase[] args, Interprete interprete) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 2) {
+            throw new ArgumentoInvalidoExcepcion("APLICAR requiere exactamente dos argumentos");
         }
         
-        return args.primero() == Simbolo.VACIO ? Simbolo.VERDADERO : Entero.CERO;
+        return funcion(args[0], "APLICAR").aplicar(args[1], interprete);
     }
     
-    private ElementoBase esLista(ElementoBase args) throws ArgumentoInvalidoExcepcion {
-        if (args == Simbolo.VACIO || args.resto() != Simbolo.VACIO) {
-            throw new ArgumentoInvalidoExcepcion("LISTA? requiere exactamente un argumento");
+    private ElementoBase mapear(ElementoBase[] args, Interprete interprete) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 2) {
+            throw new ArgumentoInvalidoExcepcion("MAPEAR requiere exactamente dos argumentos");
         }
         
-        return !args.primero().esAtomico() || args.primero() == Simbolo.VACIO 
-               ? Simbolo.VERDADERO : Entero.CERO;
+        FuncionAplicable funcion = funcion(args[0], "MAPEAR");
+        ElementoBase[] elementos = elementosDeLista(args[1], "MAPEAR");
+        
+        for (int i = 0; i < elementos.length; i++) {
+            elementos[i] = funcion.aplicar1(elementos[i], interprete);
+        }
+        return ListaArreglo.crear(elementos, elementos.length, Simbolo.VACIO);
     }
     
-    private ElementoBase esSimbolo(ElementoBase args) throws ArgumentoInvalidoExcepcion {
-        if (args == Simbolo.VACIO || args.resto() != Simbolo.VACIO) {
-            throw new ArgumentoInvalidoExcepcion("SIMBOLO? requiere exactamente un argumento");
+    /**
+     * Como MAPEAR, pero reparte los elementos entre los hilos del ForkJoinPool común.
+     * Cada tramo se ejecuta con un intérprete derivado, así que las asignaciones
+     * globales que haga la función no se ven fuera de su tramo; el resultado
+     * conserva el orden de la lista. Con presupuesto de pasos se ejecuta en orden.
+     */
+    private ElementoBase pmapear(ElementoBase[] args, Interprete interprete) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 2) {
+            throw new ArgumentoInvalidoExcepcion("PMAPEAR requiere exactamente dos argumentos");
+        }
+        
+        if (interprete.tienePresupuesto()) {
+            return mapear(args, interprete);
+        }
+        
+        FuncionAplicable funcion = funcion(args[0], "PMAPEAR");
+        ElementoBase[] elementos = elementosDeLista(args[1], "PMAPEAR");
+        ElementoBase[] resultados = new ElementoBase[elementos.length];
+        
+        // Unos cuatro tramos por hilo, para repartir bien aunque los elementos cuesten distinto
+        int tramo = Math.max(1, elementos.length / (4 * ForkJoinPool.getCommonPoolParallelism()));
+        MapeoParalelo mapeo = new MapeoParalelo(funcion, interprete, elementos, resultados,
+                0, elementos.length, tramo, new AtomicReference<>());
+        mapeo.invoke();
+        
+        Throwable error = mapeo.error.get();
+        if (error instanceof ArgumentoInvalidoExcepcion) {
+            throw (ArgumentoInvalidoExcepcion) error;
+        } else if (error != null) {
+            throw (RuntimeException) error;
+        }
+        return ListaArreglo.crear(resultados, resultados.length, Simbolo.VACIO);
+    }
+    
+    /**
+     * Olvida los resultados de una función memorizada y devuelve cuántos había
+     */
+    private ElementoBase limpiarMemo(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 1) {
+            throw new ArgumentoInvalidoExcepcion("LIMPIAR_MEMO requiere exactamente un argumento");
         }
         
-        return args.primero().esSimbolo() ? Simbolo.VERDADERO : Entero.CERO;
+        return Entero.crear(memorizada(args[0], "LIMPIAR_MEMO").limpiar());
     }
     
-    private ElementoBase esNumerico(ElementoBase args) throws ArgumentoInvalidoExcepcion {
-        if (args == Simbolo.VACIO || args.resto() != Simbolo.VACIO) {
-            throw new ArgumentoInvalidoExcepcion("NUMERO? requiere exactamente un argumento");
+    /**
+     * Estado de la cache de una función memorizada, como
+     * (TAMANO n CAPACIDAD c ACIERTOS a FALLOS f POLITICA LRU)
+     */
+    private ElementoBase infoMemo(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 1) {
+            throw new ArgumentoInvalidoExcepcion("INFO_MEMO requiere exactamente un argumento");
+        }
+        
+        FuncionMemorizada funcion = memorizada(args[0], "INFO_MEMO");
+        ElementoBase[] info = {
+                Simbolo.TAMANO, Entero.crear(funcion.getTamano()),
+                Simbolo.CAPACIDAD, Entero.crear(funcion.getCapacidad()),
+                Simbolo.ACIERTOS, Entero.crear(funcion.getAciertos()),
+                Simbolo.FALLOS, Entero.crear(funcion.getFallos()),
+                Simbolo.POLITICA, funcion.esLru() ? Simbolo.LRU : Simbolo.FIFO
+        };
+        return ListaArreglo.crear(info, info.length, Simbolo.VACIO);
+    }
+    
+    /**
+     * (CONFIGURAR_MEMO funcion capacidad [LRU|FIFO]) cambia la capacidad de la cache
+     * y, si se indica, la política de descarte
+     */
+    private ElementoBase configurarMemo(ElementoBase[] args) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 2 && args.length != 3) {
+            throw new ArgumentoInvalidoExcepcion("CONFIGURAR_MEMO requiere dos o tres argumentos");
+        }
+        
+        FuncionMemorizada funcion = memorizada(args[0], "CONFIGURAR_MEMO");
+        if (!args[1].esNumerico() || ((Entero) args[1]).esGrande()
+                || ((Entero) args[1]).valor() < 1 || ((Entero) args[1]).valor() > Integer.MAX_VALUE) {
+            throw new TipoInvalidoException("CONFIGURAR_MEMO requiere una capacidad entera positiva");
+        }
+        
+        boolean lru = funcion.esLru();
+        if (args.length == 3) {
+            if (args[2] != Simbolo.LRU && args[2] != Simbolo.FIFO) {
+                throw new TipoInvalidoException("La política de CONFIGURAR_MEMO debe ser LRU o FIFO");
+            }
+            lru = args[2] == Simbolo.LRU;
         }
         
-        return args.primero().esNumerico() ? Simbolo.VERDADERO : Entero.CERO;
+        funcion.configurar((int) ((Entero) args[1]).valor(), lru);
+        return Simbolo.VERDADERO;
     }
     
-    private ElementoBase imprimir(ElementoBase args) throws ArgumentoInvalidoExcepcion {
+    private ElementoBase imprimir(ElementoBase[] args, Interprete interprete) {
         PrintStream salida = interprete.getSalida();
         
         for (ElementoBase arg : args) {
@@ -349,15 +695,227 @@ public class PrimitivasRegistro {
         }
         salida.println();
         
-        return args == Simbolo.VACIO ? Simbolo.VACIO : args.primero();
+        return args.length == 0 ? Simbolo.VACIO : args[0];
+    }
+    
+    private ElementoBase cargar(ElementoBase[] args, Interprete interprete) throws ArgumentoInvalidoExcepcion {
+        if (args.length != 1) {
+            throw new ArgumentoInvalidoExcepcion("CARGAR requiere exactamente un argumento");
+        }
+        
+        if (!args[0].esTexto()) {
+            throw new TipoInvalidoException("CARGAR requiere la ruta del archivo como texto");
+        }
+        
+        String ruta = ((Texto) args[0]).valor();
+        try {
+            interprete.cargar(Paths.get(ruta));
+        } catch (IOException e) {
+            throw new ArgumentoInvalidoExcepcion("No se pudo cargar " + ruta + ": " + e.getMessage(), e);
+        }
+        
+        return Simbolo.VERDADERO;
+    }
+    
+    /**
+     * Verifica que un argumento sea numérico
+     * @param operador Nombre de la primitiva, para el mensaje de error
+     */
+    private static Entero numero(ElementoBase arg, String operador) throws TipoInvalidoException {
+        if (!arg.esNumerico()) {
+            throw new TipoInvalidoException("Los argumentos de " + operador + " deben ser números");
+        }
+        return (Entero) arg;
+    }
+    
+    /**
+     * Verifica que un argumento sea una función
+     */
+    private static FuncionAplicable funcion(ElementoBase arg, String operador) throws TipoInvalidoException {
+        if (!(arg instanceof FuncionAplicable)) {
+            throw new TipoInvalidoException("El primer argumento de " + operador + " debe ser una función");
+        }
+        return (FuncionAplicable) arg;
+    }
+    
+    /**
+     * Verifica que un argumento sea una función definida con DEF_FUNCION_MEMO
+     */
+    private static FuncionMemorizada memorizada(ElementoBase arg, String operador) throws TipoInvalidoException {
+        if (!(arg instanceof FuncionMemorizada)) {
+            throw new TipoInvalidoException(operador + " requiere una función definida con DEF_FUNCION_MEMO");
+        }
+        return (FuncionMemorizada) arg;
+    }
+    
+    /**
+     * Copia los elementos de una lista propia a un arreglo nuevo
+     */
+    private static ElementoBase[] elementosDeLista(ElementoBase lista, String operador)
+            throws ArgumentoInvalidoExcepcion {
+        int cantidad = 0;
+        ElementoBase actual = lista;
+        for (; esListaNoVacia(actual); actual = actual.resto()) {
+            cantidad++;
+        }
+        if (actual != Simbolo.VACIO) {
+            throw new TipoInvalidoException(operador + " requiere una lista");
+        }
+        
+        ElementoBase[] elementos = new ElementoBase[cantidad];
+        actual = lista;
+        for (int i = 0; i < cantidad; i++) {
+            elementos[i] = actual.primero();
+            actual = actual.resto();
+        }
+        return elementos;
+    }
+    
+    /**
+     * Aplica una función a un tramo de elementos, dividiéndolo en mitades hasta
+     * llegar al tamaño de tramo. El primer error, del lenguaje o de Java, detiene a los
+     * tramos que aún no terminaron y pmapear lo lanza al final.
+     */
+    private static final class MapeoParalelo extends RecursiveAction {
+        private final FuncionAplicable funcion;
+        private final Interprete interprete;
+        private final ElementoBase[] elementos;
+        private final ElementoBase[] resultados;
+        private final int desde;
+        private final int hasta;
+        private final int tramo;
+        final AtomicReference<Throwable> error;
+        
+        MapeoParalelo(FuncionAplicable funcion, Interprete interprete, ElementoBase[] elementos,
+                      ElementoBase[] resultados, int desde, int hasta, int tramo,
+                      AtomicReference<Throwable> error) {
+            this.funcion = funcion;
+            this.interprete = interprete;
+            this.elementos = elementos;
+            this.resultados = resultados;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.tramo = tramo;
+            this.error = error;
+        }
+        
+        @Override
+        protected void compute() {
+            if (hasta - desde > tramo) {
+                int medio = (desde + hasta) >>> 1;
+                invokeAll(new MapeoParalelo(funcion, interprete, elementos, resultados, desde, medio, tramo, error),
+                        new MapeoParalelo(funcion, interprete, elementos, resultados, medio, hasta, tramo, error));
+                return;
+            }
+            
+            Interprete derivado = interprete.derivar();
+            try {
+                for (int i = desde; i < hasta && error.get() == null; i++) {
+                    resultados[i] = funcion.aplicar1(elementos[i], derivado);
+                }
+            } catch (ArgumentoInvalidoExcepcion | RuntimeException e) {
+                error.compareAndSet(null, e);
+            }
+        }
+    }
+    
+    /**
+     * Las funciones no son átomos pero tampoco listas: no tienen primero ni resto
+     */
+    private static boolean esListaNoVacia(ElementoBase arg) {
+        return arg instanceof Enlace || arg instanceof ListaArreglo;
+    }
+    
+    /**
+     * Verifica que un argumento sea un vector
+     */
+    private static Arreglo vector(ElementoBase arg, String operador) throws TipoInvalidoException {
+        if (!(arg instanceof Arreglo)) {
+            throw new TipoInvalidoException(operador + " requiere un vector");
+        }
+        return (Arreglo) arg;
+    }
+    
+    /**
+     * Verifica que un argumento sea una tabla
+     */
+    private static TablaHash tabla(ElementoBase arg, String operador) throws TipoInvalidoException {
+        if (!(arg instanceof TablaHash)) {
+            throw new TipoInvalidoException(operador + " requiere una tabla");
+        }
+        return (TablaHash) arg;
+    }
+    
+    /**
+     * Verifica que un argumento pueda usarse como clave de una tabla: las listas
+     * se comparan por identidad, así que solo se admiten átomos
+     */
+    private static ElementoBase clave(ElementoBase arg, String operador) throws TipoInvalidoException {
+        if (!arg.esAtomico()) {
+            throw new TipoInvalidoException("Las claves de " + operador + " deben ser átomos");
+        }
+        return arg;
+    }
+    
+    /**
+     * Verifica que un argumento sea un índice o una longitud no negativa
+     */
+    private static int indice(ElementoBase arg, String operador) throws TipoInvalidoException {
+        if (!arg.esNumerico() || ((Entero) arg).esGrande()
+                || ((Entero) arg).valor() < 0 || ((Entero) arg).valor() > Integer.MAX_VALUE) {
+            throw new TipoInvalidoException(operador + " requiere un índice entero no negativo");
+        }
+        return (int) ((Entero) arg).valor();
+    }
+    
+    /**
+     * Construye una lista agregando al final
+     */
+    private static final class ListaEnConstruccion {
+        private final List<ElementoBase> elementos = new ArrayList<>();
+        
+        void agregar(ElementoBase elemento) {
+            elementos.add(elemento);
+        }
+        
+        ElementoBase lista() {
+            return ListaArreglo.crear(elementos.toArray(SIN_ARGUMENTOS), elementos.size(), Simbolo.VACIO);
+        }
     }
     
     /**
-     * Interfaz para implementaciones de funciones
+     * Interfaz para implementaciones de funciones.
+     * Recibe los argumentos ya evaluados; no debe guardar ni modificar el arreglo.
      */
     @FunctionalInterface
     interface FuncionImplementacion {
-        ElementoBase ejecutar(ElementoBase args) throws ArgumentoInvalidoExcepcion;
+        ElementoBase ejecutar(ElementoBase[] args) throws ArgumentoInvalidoExcepcion;
+    }
+    
+    /**
+     * Implementación general para primitivas que aplican funciones o evalúan código,
+     * y por eso necesitan el intérprete que las llama: con las primitivas paralelas
+     * no siempre es el que las registró
+     */
+    @FunctionalInterface
+    interface FuncionConInterprete {
+        ElementoBase ejecutar(ElementoBase[] args, Interprete interprete) throws ArgumentoInvalidoExcepcion;
+    }
+    
+    /**
+     * Implementación especializada para llamadas con un argumento
+     */
+    @FunctionalInterface
+    interface FuncionUnaria {
+        ElementoBase ejecutar(ElementoBase a) throws ArgumentoInvalidoExcepcion;
+    }
+    
+    /**
+     * Implementación especializada para llamadas con dos argumentos
+     */
+    @FunctionalInterface
+    interface FuncionBinaria {
+        ElementoBase ejecutar(ElementoBase a, ElementoBase b) throws ArgumentoInvalidoExcepcion;
     }
     
     /**
@@ -365,17 +923,89 @@ public class PrimitivasRegistro {
      */
     public class Primitiva extends ElementoBase implements FuncionAplicable {
         private FuncionImplementacion funcion;
+        private FuncionConInterprete conInterprete;
+        private FuncionUnaria unaria;
+        private FuncionBinaria binaria;
         private Simbolo nombre;
         
         public Primitiva(FuncionImplementacion funcion, Simbolo nombre) {
+            this(funcion, null, null, nombre);
+        }
+        
+        public Primitiva(FuncionConInterprete conInterprete, Simbolo nombre) {
+            this.conInterprete = conInterprete;
+            this.nombre = nombre;
+        }
+        
+        /**
+         * @param funcion Implementación general, para cualquier cantidad de argumentos
+         * @param unaria Implementación para un argumento, o null para usar la general
+         * @param binaria Implementación para dos argumentos, o null para usar la general
+         */
+        public Primitiva(FuncionImplementacion funcion, FuncionUnaria unaria, FuncionBinaria binaria,
+                         Simbolo nombre) {
             this.funcion = funcion;
+            this.unaria = unaria;
+            this.binaria = binaria;
             this.nombre = nombre;
         }
         
+        /**
+         * Símbolo con el que se registró la primitiva
+         */
+        public Simbolo getNombre() {
+            return nombre;
+        }
+        
+        @Override
+        public ElementoBase aplicar(ElementoBase argumentos, Interprete interprete)
+                throws ArgumentoInvalidoExcepcion {
+            int cantidad = 0;
+            for (ElementoBase actual = argumentos; !actual.esAtomico(); actual = actual.resto()) {
+                cantidad++;
+            }
+            
+            ElementoBase[] arreglo = new ElementoBase[cantidad];
+            ElementoBase actual = argumentos;
+            for (int i = 0; i < cantidad; i++) {
+                arreglo[i] = actual.primero();
+                actual = actual.resto();
+            }
+            
+            return ejecutar(arreglo, interprete);
+        }
+        
+        @Override
+        public ElementoBase aplicarArreglo(ElementoBase[] argumentos, Interprete interprete)
+                throws ArgumentoInvalidoExcepcion {
+            return ejecutar(argumentos, interprete);
+        }
+        
+        @Override
+        public ElementoBase aplicar0(Interprete interprete) throws ArgumentoInvalidoExcepcion {
+            return ejecutar(SIN_ARGUMENTOS, interprete);
+        }
+        
         @Override
-        public ElementoBase aplicar(ElementoBase argumentos, Interprete interprete) 
+        public ElementoBase aplicar1(ElementoBase a, Interprete interprete) throws ArgumentoInvalidoExcepcion {
+            return unaria != null ? unaria.ejecutar(a) : ejecutar(new ElementoBase[] {a}, interprete);
+        }
+        
+        @Override
+        public ElementoBase aplicar2(ElementoBase a, ElementoBase b, Interprete interprete)
+                throws ArgumentoInvalidoExcepcion {
+            return binaria != null ? binaria.ejecutar(a, b) : ejecutar(new ElementoBase[] {a, b}, interprete);
+        }
+        
+        @Override
+        public ElementoBase aplicar3(ElementoBase a, ElementoBase b, ElementoBase c, Interprete interprete)
+                throws ArgumentoInvalidoExcepcion {
+            return ejecutar(new ElementoBase[] {a, b, c}, interprete);
+        }
+        
+        private ElementoBase ejecutar(ElementoBase[] argumentos, Interprete interprete)
                 throws ArgumentoInvalidoExcepcion {
-            return funcion.ejecutar(argumentos);
+            return funcion != null ? funcion.ejecutar(argumentos) : conInterprete.ejecutar(argumentos, interprete);
         }
         
         @Override
@@ -400,4 +1030,4 @@ public class PrimitivasRegistro {
             return Collections.emptyIterator();
         }
     }
-}
\ No newline at end of file
+}
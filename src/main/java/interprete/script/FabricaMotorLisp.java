@@ -0,0 +1,98 @@
+package interprete.script;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import java.util.List;
+
+/**
+ * Fábrica JSR-223 del intérprete. Se registra como servicio, así que
+ * new ScriptEngineManager().getEngineByName("lisp") devuelve un MotorLisp.
+ */
+public class FabricaMotorLisp implements ScriptEngineFactory {
+    private static final List<String> NOMBRES = List.of("lisp", "interprete-lisp");
+    private static final List<String> EXTENSIONES = List.of("lisp");
+    private static final List<String> TIPOS_MIME = List.of("text/x-lisp");
+
+    @Override
+    public String getEngineName() {
+        return "interprete-lisp";
+    }
+
+    @Override
+    public String getEngineVersion() {
+        return "1.0";
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return EXTENSIONES;
+    }
+
+    @Override
+    public List<String> getMimeTypes() {
+        return TIPOS_MIME;
+    }
+
+    @Override
+    public List<String> getNames() {
+        return NOMBRES;
+    }
+
+    @Override
+    public String getLanguageName() {
+        return "Lisp";
+    }
+
+    @Override
+    public String getLanguageVersion() {
+        return "1.0";
+    }
+
+    /**
+     * Cada hilo evalúa con su propio intérprete y los vínculos del motor se actualizan
+     * sincronizados, así que un motor puede usarse desde varios hilos a la vez
+     */
+    @Override
+    public Object getParameter(String clave) {
+        switch (clave) {
+            case ScriptEngine.ENGINE:
+                return getEngineName();
+            case ScriptEngine.ENGINE_VERSION:
+                return getEngineVersion();
+            case ScriptEngine.NAME:
+                return NOMBRES.get(0);
+            case ScriptEngine.LANGUAGE:
+                return getLanguageName();
+            case ScriptEngine.LANGUAGE_VERSION:
+                return getLanguageVersion();
+            case "THREADING":
+                return "MULTITHREADED";
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public String getMethodCallSyntax(String objeto, String metodo, String... argumentos) {
+        StringBuilder sb = new StringBuilder("(").append(metodo).append(' ').append(objeto);
+        for (String argumento : argumentos) {
+            sb.append(' ').append(argumento);
+        }
+        return sb.append(')').toString();
+    }
+
+    @Override
+    public String getOutputStatement(String texto) {
+        return "(IMPRIMIR \"" + texto.replace("\\", "\\\\").replace("\"", "\\\"") + "\")";
+    }
+
+    @Override
+    public String getProgram(String... sentencias) {
+        return String.join("\n", sentencias);
+    }
+
+    @Override
+    public ScriptEngine getScriptEngine() {
+        return new MotorLisp(this);
+    }
+}
@@ -0,0 +1,316 @@
+package interprete.script;
+
+import interprete.ImagenGlobal;
+import interprete.Interprete;
+import interprete.elementos.*;
+import interprete.evaluacion.Analizador;
+import interprete.evaluacion.Nodo;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+import interprete.util.LectorFlujo;
+
+import javax.script.*;
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Motor JSR-223 del intérprete.
+ * Cada hilo evalúa con su propio intérprete sobre la ImagenGlobal del motor, que se
+ * reutiliza de una evaluación a la siguiente. Los vínculos del contexto (primero los
+ * globales, después los del motor) se definen como sus variables globales propias; los
+ * que no cambiaron desde la evaluación anterior no se vuelven a definir, así que la
+ * versión global se mantiene y los valores que recuerda cada referencia siguen vigentes.
+ * Los nombres se pasan a mayúsculas, como hace el lector. Al terminar, las variables
+ * que el script vinculó o cambió se copian a los vínculos del motor, así que una función
+ * definida en una evaluación se puede llamar en las siguientes; nada se publica en la imagen.
+ * Los vínculos se leen y se actualizan sincronizados sobre el objeto Bindings, así que
+ * varios hilos pueden evaluar a la vez con los mismos vínculos del motor.
+ *
+ * Los enteros, textos, booleanos, listas de Java y elementos del lenguaje se convierten;
+ * los vínculos de otros tipos se ignoran. Los resultados enteros y de texto se devuelven
+ * como Long (o BigInteger) y String, y el resto como el elemento mismo.
+ */
+public class MotorLisp extends AbstractScriptEngine implements Compilable {
+    private final FabricaMotorLisp fabrica;
+    private final ImagenGlobal imagen;
+    private final Analizador analizador = new Analizador();
+    /**
+     * Intérprete y salida libres de cada hilo. Mientras se usan no están aquí, así que
+     * una evaluación anidada en otra del mismo hilo crea los suyos.
+     */
+    private final ThreadLocal<Ejecucion> libres = new ThreadLocal<>();
+
+    MotorLisp(FabricaMotorLisp fabrica) {
+        this(fabrica, new ImagenGlobal());
+    }
+
+    /**
+     * Crea un motor sobre una imagen ya cargada, que pueden compartir varios motores
+     */
+    public MotorLisp(ImagenGlobal imagen) {
+        this(new FabricaMotorLisp(), imagen);
+    }
+
+    private MotorLisp(FabricaMotorLisp fabrica, ImagenGlobal imagen) {
+        this.fabrica = fabrica;
+        this.imagen = imagen;
+    }
+
+    @Override
+    public Object eval(String script, ScriptContext contexto) throws ScriptException {
+        return compile(script).eval(contexto);
+    }
+
+    @Override
+    public Object eval(Reader script, ScriptContext contexto) throws ScriptException {
+        return compile(script).eval(contexto);
+    }
+
+    @Override
+    public CompiledScript compile(String script) throws ScriptException {
+        return compile(new StringReader(script));
+    }
+
+    /**
+     * Lee y analiza todas las expresiones del script. El resultado puede evaluarse
+     * muchas veces, desde varios hilos y con distintos vínculos.
+     */
+    @Override
+    public CompiledScript compile(Reader script) throws ScriptException {
+        List<Nodo> nodos = new ArrayList<>();
+        try {
+            LectorFlujo lector = new LectorFlujo(script);
+            ElementoBase expresion;
+            while ((expresion = lector.siguiente()) != null) {
+                nodos.add(analizador.analizar(expresion));
+            }
+        } catch (IOException | ArgumentoInvalidoExcepcion | RuntimeException e) {
+            throw error(e);
+        }
+        return new ScriptLisp(this, nodos.toArray(new Nodo[0]));
+    }
+
+    @Override
+    public Bindings createBindings() {
+        return new SimpleBindings();
+    }
+
+    @Override
+    public ScriptEngineFactory getFactory() {
+        return fabrica;
+    }
+
+    /**
+     * Ejecuta las expresiones de un script compilado con los vínculos del contexto
+     * @return El valor de la última expresión convertido, o VACIO si no había ninguna
+     */
+    Object ejecutar(Nodo[] nodos, ScriptContext contexto) throws ScriptException {
+        Ejecucion ejecucion = libres.get();
+        if (ejecucion != null) {
+            libres.remove();
+        } else {
+            ejecucion = new Ejecucion(imagen);
+        }
+        Interprete interprete = ejecucion.interprete;
+        SalidaEscritor salida = ejecucion.salida;
+        salida.dirigir(contexto.getWriter());
+
+        // Valor con que se definió cada vínculo y su nombre original
+        Map<Simbolo, ElementoBase> vinculados = new HashMap<>();
+        Map<Simbolo, String> nombres = new HashMap<>();
+        convertir(contexto.getBindings(ScriptContext.GLOBAL_SCOPE), vinculados, nombres);
+        Bindings vinculosMotor = contexto.getBindings(ScriptContext.ENGINE_SCOPE);
+        convertir(vinculosMotor, vinculados, nombres);
+        vincular(interprete, vinculados);
+
+        ElementoBase resultado = Simbolo.VACIO;
+        try {
+            for (Nodo nodo : nodos) {
+                resultado = interprete.ejecutar(nodo);
+            }
+        } catch (ArgumentoInvalidoExcepcion | RuntimeException e) {
+            throw error(e);
+        } finally {
+            if (vinculosMotor != null) {
+                devolver(interprete, vinculosMotor, vinculados, nombres);
+            }
+            salida.flujo.flush();
+            salida.dirigir(null);
+            libres.set(ejecucion);
+        }
+        return aJava(resultado);
+    }
+
+    private static void convertir(Bindings vinculos, Map<Simbolo, ElementoBase> vinculados,
+                                  Map<Simbolo, String> nombres) {
+        if (vinculos == null) {
+            return;
+        }
+        synchronized (vinculos) {
+            for (Map.Entry<String, Object> vinculo : vinculos.entrySet()) {
+                ElementoBase valor = aLisp(vinculo.getValue());
+                if (valor != null) {
+                    Simbolo nombre = Simbolo.simbolo(vinculo.getKey().toUpperCase());
+                    vinculados.put(nombre, valor);
+                    nombres.put(nombre, vinculo.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Deja como variables propias del intérprete exactamente los vínculos, definiendo
+     * solo los que cambiaron. Los que no cambiaron quedan en vinculados con el valor
+     * que ya tenía el intérprete, para que devolver no los tome por cambiados.
+     */
+    private static void vincular(Interprete interprete, Map<Simbolo, ElementoBase> vinculados) {
+        Map<Simbolo, ElementoBase> propias = interprete.getVinculacionesPropias();
+        if (!vinculados.keySet().containsAll(propias.keySet())) {
+            // Sobra alguna variable de una evaluación anterior
+            interprete.descartarPropias();
+        }
+
+        for (Map.Entry<Simbolo, ElementoBase> vinculo : vinculados.entrySet()) {
+            ElementoBase anterior = propias.get(vinculo.getKey());
+            if (mismoValor(anterior, vinculo.getValue())) {
+                vinculo.setValue(anterior);
+            } else {
+                interprete.definirGlobal(vinculo.getKey(), vinculo.getValue());
+            }
+        }
+    }
+
+    /**
+     * Los enteros y textos convertidos de Java son objetos nuevos en cada evaluación
+     */
+    private static boolean mismoValor(ElementoBase anterior, ElementoBase valor) {
+        if (anterior == valor) {
+            return true;
+        } else if (anterior instanceof Entero) {
+            return anterior.equals(valor);
+        } else if (anterior instanceof Texto && valor instanceof Texto) {
+            return ((Texto) anterior).valor().equals(((Texto) valor).valor());
+        }
+        return false;
+    }
+
+    /**
+     * Copia a los vínculos del motor las variables que el script vinculó o cambió
+     */
+    private static void devolver(Interprete interprete, Bindings vinculos,
+                                 Map<Simbolo, ElementoBase> vinculados, Map<Simbolo, String> nombres) {
+        synchronized (vinculos) {
+            for (Map.Entry<Simbolo, ElementoBase> variable : interprete.getVinculacionesPropias().entrySet()) {
+                Simbolo nombre = variable.getKey();
+                if (vinculados.get(nombre) != variable.getValue()) {
+                    vinculos.put(nombres.getOrDefault(nombre, nombre.getNombre()), aJava(variable.getValue()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Convierte un valor de Java en un elemento del lenguaje
+     * @return El elemento, o null si el tipo no se admite
+     */
+    static ElementoBase aLisp(Object valor) {
+        if (valor == null) {
+            return Simbolo.VACIO;
+        } else if (valor instanceof ElementoBase) {
+            return (ElementoBase) valor;
+        } else if (valor instanceof Long || valor instanceof Integer || valor instanceof Short
+                || valor instanceof Byte) {
+            return Entero.crear(((Number) valor).longValue());
+        } else if (valor instanceof BigInteger) {
+            return Entero.crear((BigInteger) valor);
+        } else if (valor instanceof String) {
+            return Texto.crear((String) valor);
+        } else if (valor instanceof Boolean) {
+            return (Boolean) valor ? Simbolo.VERDADERO : Simbolo.VACIO;
+        } else if (valor instanceof List) {
+            List<?> lista = (List<?>) valor;
+            ElementoBase[] elementos = new ElementoBase[lista.size()];
+            int i = 0;
+            for (Object elemento : lista) {
+                if ((elementos[i++] = aLisp(elemento)) == null) {
+                    return null;
+                }
+            }
+            return ListaArreglo.crear(elementos, elementos.length, Simbolo.VACIO);
+        }
+        return null;
+    }
+
+    /**
+     * Convierte los enteros y textos a Long, BigInteger y String; el resto queda igual
+     */
+    static Object aJava(ElementoBase valor) {
+        if (valor instanceof Entero) {
+            Entero entero = (Entero) valor;
+            return entero.esGrande() ? entero.valorGrande() : (Object) entero.valor();
+        } else if (valor instanceof Texto) {
+            return ((Texto) valor).valor();
+        }
+        return valor;
+    }
+
+    private static ScriptException error(Exception causa) {
+        ScriptException error = new ScriptException(causa.getMessage());
+        error.initCause(causa);
+        return error;
+    }
+
+    /**
+     * Intérprete de un hilo con la salida que lo conecta al Writer de cada contexto.
+     * Crear un PrintStream cuesta más que ejecutar una regla corta, así que se reutilizan.
+     */
+    private static final class Ejecucion {
+        final SalidaEscritor salida = new SalidaEscritor();
+        final Interprete interprete;
+
+        Ejecucion(ImagenGlobal imagen) {
+            interprete = new Interprete(imagen, salida.flujo);
+        }
+    }
+
+    /**
+     * Pasa al Writer del contexto lo que el intérprete imprime en flujo. Los bytes se
+     * acumulan hasta cada flush, que PrintStream hace tras cada println, así que nunca
+     * se decodifica un carácter a medias.
+     */
+    private static final class SalidaEscritor extends OutputStream {
+        final PrintStream flujo = new PrintStream(this, true, StandardCharsets.UTF_8);
+        private final ByteArrayOutputStream pendiente = new ByteArrayOutputStream();
+        private Writer escritor;
+
+        void dirigir(Writer escritor) {
+            this.escritor = escritor;
+        }
+
+        @Override
+        public void write(int b) {
+            pendiente.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int desde, int cantidad) {
+            pendiente.write(b, desde, cantidad);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (escritor == null) {
+                return;
+            }
+            if (pendiente.size() > 0) {
+                escritor.write(pendiente.toString(StandardCharsets.UTF_8));
+                pendiente.reset();
+            }
+            escritor.flush();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package interprete.script;
+
+import interprete.evaluacion.Nodo;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+/**
+ * Script ya leído y analizado por un MotorLisp. Cada evaluación solo ejecuta los
+ * nodos, con el intérprete del hilo y los vínculos del contexto que recibe.
+ */
+class ScriptLisp extends CompiledScript {
+    private final MotorLisp motor;
+    private final Nodo[] nodos;
+
+    ScriptLisp(MotorLisp motor, Nodo[] nodos) {
+        this.motor = motor;
+        this.nodos = nodos;
+    }
+
+    @Override
+    public Object eval(ScriptContext contexto) throws ScriptException {
+        return motor.ejecutar(nodos, contexto);
+    }
+
+    @Override
+    public ScriptEngine getEngine() {
+        return motor;
+    }
+}
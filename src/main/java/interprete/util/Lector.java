@@ -0,0 +1,296 @@
+package interprete.util;
+
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Enlace;
+import interprete.elementos.Entero;
+import interprete.elementos.ListaArreglo;
+import interprete.elementos.Simbolo;
+import interprete.elementos.Texto;
+import interprete.excepciones.ParseException;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Análisis léxico y sintáctico independiente del origen de los caracteres.
+ * Las subclases solo indican cómo mirar y avanzar sobre su entrada.
+ */
+abstract class Lector {
+    /**
+     * Valor devuelto por mirar cuando ya no quedan caracteres
+     */
+    protected static final int FIN = -1;
+
+    private final StringBuilder token = new StringBuilder();
+
+    /**
+     * Devuelve el carácter actual sin consumirlo, o FIN
+     */
+    protected abstract int mirar();
+
+    /**
+     * Devuelve el carácter que sigue al actual sin consumir nada, o FIN
+     */
+    protected abstract int mirarSiguiente();
+
+    /**
+     * Consume el carácter actual
+     */
+    protected abstract void avanzar();
+
+    /**
+     * Lee la siguiente expresión completa.
+     * Las listas abiertas se guardan en una pila explícita en lugar de usar
+     * recursión, así que ni la longitud ni el anidamiento consumen pila de Java.
+     * @return La expresión leída, o null si la entrada terminó antes de empezar otra
+     */
+    public ElementoBase leerExpresion() {
+        Deque<ListaEnConstruccion> pila = new ArrayDeque<>();
+
+        while (true) {
+            saltarEspaciosEnBlanco();
+
+            int c = mirar();
+            if (c == FIN) {
+                if (pila.isEmpty()) {
+                    return null;
+                }
+                if (!pila.peek().esCita()) {
+                    throw new ParseException("Lista no cerrada al final de la expresión");
+                }
+                // Una cita sin expresión al final del texto cita a VACIO
+                return entregar(pila, Simbolo.VACIO);
+            }
+
+            ElementoBase valor;
+
+            if (c == '(') {
+                avanzar();
+                pila.push(new ListaEnConstruccion(false));
+                continue;
+            } else if (c == ')') {
+                avanzar();
+                if (pila.isEmpty() || pila.peek().esCita()) {
+                    throw new ParseException("Paréntesis de cierre inesperado");
+                }
+                valor = pila.pop().cerrar();
+            } else if (c == '\'') {
+                avanzar();
+                pila.push(new ListaEnConstruccion(true));
+                continue;
+            } else if (c == '.' && !pila.isEmpty() && pila.peek().admitePunto()) {
+                // Soporte para notación de punto (pares explícitos)
+                avanzar();
+                pila.peek().marcarPunto();
+                continue;
+            } else if (c == '"') {
+                valor = leerTexto();
+            } else if (Character.isDigit(c) || (c == '-' && mirarSiguiente() != FIN && Character.isDigit(mirarSiguiente()))) {
+                valor = leerNumero();
+            } else {
+                valor = leerSimbolo();
+            }
+
+            if (pila.isEmpty() || (valor = entregar(pila, valor)) != null) {
+                return valor;
+            }
+        }
+    }
+
+    /**
+     * Entrega un elemento terminado a la lista abierta en la cima de la pila,
+     * aplicando antes las citas pendientes.
+     * @return El elemento si con él se completa la expresión, o null si quedó dentro de una lista
+     */
+    private ElementoBase entregar(Deque<ListaEnConstruccion> pila, ElementoBase valor) {
+        while (!pila.isEmpty() && pila.peek().esCita()) {
+            pila.pop();
+            valor = new Enlace(Simbolo.CITAR, new Enlace(valor, Simbolo.VACIO));
+        }
+        if (pila.isEmpty()) {
+            return valor;
+        }
+        pila.peek().agregar(valor);
+        return null;
+    }
+
+    /**
+     * Lee una cadena de texto (entre comillas dobles)
+     */
+    protected ElementoBase leerTexto() {
+        avanzar(); // Saltar '"'
+        StringBuilder sb = token;
+        sb.setLength(0);
+
+        int c;
+        while ((c = mirar()) != FIN && c != '"') {
+            avanzar();
+            if (c == '\\' && mirar() != FIN) {
+                int escapado = mirar();
+                avanzar();
+                switch (escapado) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case '"': sb.append('"'); break;
+                    case '\\': sb.append('\\'); break;
+                    default: sb.appendCodePoint(escapado); break;
+                }
+            } else {
+                sb.appendCodePoint(c);
+            }
+        }
+
+        if (c != '"') {
+            throw new ParseException("Cadena de texto no cerrada");
+        }
+
+        avanzar(); // Saltar '"'
+        return Texto.crear(sb.toString());
+    }
+
+    /**
+     * Lee un número entero
+     */
+    protected ElementoBase leerNumero() {
+        StringBuilder sb = token;
+        sb.setLength(0);
+
+        if (mirar() == '-') {
+            sb.append('-');
+            avanzar();
+        }
+
+        int c;
+        while ((c = mirar()) != FIN && Character.isDigit(c)) {
+            sb.appendCodePoint(c);
+            avanzar();
+        }
+
+        String numero = sb.toString();
+        try {
+            return Entero.crear(Long.parseLong(numero));
+        } catch (NumberFormatException e) {
+            // Fuera del rango de long: se lee como entero grande
+        }
+        try {
+            return Entero.crear(new BigInteger(numero));
+        } catch (NumberFormatException e) {
+            throw new ParseException("Número inválido: " + numero);
+        }
+    }
+
+    /**
+     * Lee un símbolo (identificador)
+     */
+    protected ElementoBase leerSimbolo() {
+        StringBuilder sb = token;
+        sb.setLength(0);
+
+        int c;
+        while ((c = mirar()) != FIN && !terminaSimbolo(c)) {
+            sb.appendCodePoint(c);
+            avanzar();
+        }
+
+        return simbolo(sb.toString().toUpperCase());
+    }
+
+    /**
+     * Indica si el carácter no puede formar parte de un símbolo
+     */
+    protected static boolean terminaSimbolo(int c) {
+        return Character.isWhitespace(c) || c == '(' || c == ')' || c == '\'' || c == '"';
+    }
+
+    /**
+     * Convierte un nombre ya pasado a mayúsculas en su símbolo
+     */
+    protected static Simbolo simbolo(String nombre) {
+        // Manejo de constantes especiales
+        if (nombre.equals("NIL")) {
+            return Simbolo.VACIO;
+        } else if (nombre.equals("T")) {
+            return Simbolo.VERDADERO;
+        } else {
+            return Simbolo.simbolo(nombre);
+        }
+    }
+
+    /**
+     * Avanza hasta el primer carácter no-blanco
+     */
+    private void saltarEspaciosEnBlanco() {
+        int c;
+        while ((c = mirar()) != FIN) {
+            if (Character.isWhitespace(c)) {
+                avanzar();
+            } else if (c == ';') {  // Comentarios de línea
+                while ((c = mirar()) != FIN && c != '\n') {
+                    avanzar();
+                }
+                if (c != FIN) {
+                    avanzar(); // Saltar el '\n'
+                }
+            } else {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Lista que se está leyendo: junta sus elementos en un arreglo que crece,
+     * y al cerrarse se convierte en una lista compacta si es larga. También
+     * representa una cita ('x) pendiente de recibir su expresión.
+     */
+    private static final class ListaEnConstruccion {
+        private static final ElementoBase[] SIN_ELEMENTOS = new ElementoBase[0];
+
+        private final boolean cita;
+        private ElementoBase[] elementos = SIN_ELEMENTOS;
+        private int cantidad;
+        private ElementoBase cola = Simbolo.VACIO;
+        private boolean despuesDePunto;
+        private boolean colaLeida;
+
+        ListaEnConstruccion(boolean cita) {
+            this.cita = cita;
+        }
+
+        boolean esCita() {
+            return cita;
+        }
+
+        boolean admitePunto() {
+            return !cita && cantidad > 0 && !despuesDePunto;
+        }
+
+        void marcarPunto() {
+            despuesDePunto = true;
+        }
+
+        void agregar(ElementoBase elemento) {
+            if (colaLeida) {
+                throw new ParseException("Se esperaba ')' después del punto en una lista");
+            }
+            if (despuesDePunto) {
+                cola = elemento;
+                colaLeida = true;
+            } else {
+                if (cantidad == elementos.length) {
+                    elementos = Arrays.copyOf(elementos, Math.max(4, cantidad * 2));
+                }
+                elementos[cantidad++] = elemento;
+            }
+        }
+
+        ElementoBase cerrar() {
+            if (despuesDePunto && !colaLeida) {
+                throw new ParseException("Se esperaba ')' después del punto en una lista");
+            }
+            return ListaArreglo.crear(elementos, cantidad, cola);
+        }
+    }
+}
@@ -1,17 +1,39 @@
 package interprete.util;
 
 import interprete.elementos.ElementoBase;
-import interprete.elementos.Enlace;
-import interprete.elementos.Entero;
 import interprete.elementos.Simbolo;
-import interprete.elementos.Texto;
 import interprete.excepciones.ParseException;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Analiza y evalúa expresiones textuales.
  * Convierte cadenas de texto en estructuras de ElementoBase.
+ * Opcionalmente recuerda las últimas expresiones leídas por su texto, y si vuelve a
+ * recibir el mismo texto devuelve la misma estructura sin leerlo; las estructuras que
+ * produce el lector no se modifican después de construirse, así que pueden compartirse.
+ * No es seguro usar un mismo lector desde varios hilos.
  */
 public class LectorEvaluador {
+    private final Map<String, ElementoBase> cache;
+    private long aciertos;
+    private long fallos;
+
+    /**
+     * Crea un lector sin cache
+     */
+    public LectorEvaluador() {
+        this(0);
+    }
+
+    /**
+     * @param capacidadCache Cantidad de expresiones que se recuerdan; al superarla se
+     *        descarta la usada hace más tiempo. 0 o menos desactiva la cache.
+     */
+    public LectorEvaluador(int capacidadCache) {
+        this.cache = capacidadCache > 0 ? new CacheLectura(capacidadCache) : null;
+    }
     
     /**
      * Parsea una cadena de texto en un elemento del lenguaje
@@ -24,192 +46,91 @@ public class LectorEvaluador {
             return Simbolo.VACIO;
         }
         
-        Lector lector = new Lector(texto);
-        return lector.leerExpresion();
+        if (cache == null) {
+            return leerSinCache(texto);
+        }
+        
+        ElementoBase expresion = cache.get(texto);
+        if (expresion != null) {
+            aciertos++;
+            return expresion;
+        }
+        
+        // Un texto con errores no se recuerda: vuelve a fallar en cada lectura
+        fallos++;
+        expresion = leerSinCache(texto);
+        cache.put(texto, expresion);
+        return expresion;
+    }
+    
+    private static ElementoBase leerSinCache(String texto) {
+        ElementoBase expresion = new LectorCadena(texto).leerExpresion();
+        return expresion != null ? expresion : Simbolo.VACIO;
     }
     
     /**
-     * Clase interna para el análisis léxico y sintáctico
+     * Lecturas resueltas con la cache
      */
-    private class Lector {
-        private String texto;
-        private int posicion;
-        
-        public Lector(String texto) {
-            this.texto = texto;
-            this.posicion = 0;
-        }
+    public long getAciertos() {
+        return aciertos;
+    }
+    
+    /**
+     * Lecturas que no estaban en la cache; siempre 0 sin cache
+     */
+    public long getFallos() {
+        return fallos;
+    }
+    
+    /**
+     * Cantidad de expresiones recordadas
+     */
+    public int getTamanoCache() {
+        return cache != null ? cache.size() : 0;
+    }
+    
+    /**
+     * Mapa en orden de acceso que descarta la entrada usada hace más tiempo al llenarse
+     */
+    private static final class CacheLectura extends LinkedHashMap<String, ElementoBase> {
+        private final int capacidad;
         
-        /**
-         * Lee una expresión completa desde la posición actual
-         */
-        public ElementoBase leerExpresion() {
-            saltarEspaciosEnBlanco();
-            
-            if (posicion >= texto.length()) {
-                return Simbolo.VACIO;
-            }
-            
-            char c = texto.charAt(posicion);
-            
-            if (c == '(') {
-                return leerLista();
-            } else if (c == ')') {
-                posicion++;
-                throw new ParseException("Paréntesis de cierre inesperado");
-            } else if (c == '\'') {
-                posicion++;
-                ElementoBase citado = leerExpresion();
-                return new Enlace(Simbolo.CITAR, new Enlace(citado, Simbolo.VACIO));
-            } else if (c == '"') {
-                return leerTexto();
-            } else if (Character.isDigit(c) || (c == '-' && posicion + 1 < texto.length() && Character.isDigit(texto.charAt(posicion + 1)))) {
-                return leerNumero();
-            } else {
-                return leerSimbolo();
-            }
+        CacheLectura(int capacidad) {
+            super(16, 0.75f, true);
+            this.capacidad = capacidad;
         }
         
-        /**
-         * Lee una lista (expresión entre paréntesis)
-         */
-        private ElementoBase leerLista() {
-            posicion++; // Saltar '('
-            saltarEspaciosEnBlanco();
-            
-            if (posicion >= texto.length()) {
-                throw new ParseException("Lista no cerrada al final de la expresión");
-            }
-            
-            if (texto.charAt(posicion) == ')') {
-                posicion++; // Saltar ')'
-                return Simbolo.VACIO;
-            }
-            
-            ElementoBase primero = leerExpresion();
-            saltarEspaciosEnBlanco();
-            
-            if (posicion >= texto.length()) {
-                throw new ParseException("Lista no cerrada al final de la expresión");
-            }
-            
-            // Soporte para notación de punto (pares explícitos)
-            if (texto.charAt(posicion) == '.') {
-                posicion++; // Saltar '.'
-                saltarEspaciosEnBlanco();
-                ElementoBase resto = leerExpresion();
-                saltarEspaciosEnBlanco();
-                
-                if (posicion >= texto.length() || texto.charAt(posicion) != ')') {
-                    throw new ParseException("Se esperaba ')' después del punto en una lista");
-                }
-                
-                posicion++; // Saltar ')'
-                return new Enlace(primero, resto);
-            } else {
-                // Lista normal
-                ElementoBase resto = leerLista();
-                return new Enlace(primero, resto);
-            }
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ElementoBase> mayor) {
+            return size() > capacidad;
         }
+    }
+    
+    /**
+     * Lector que recorre una cadena ya cargada en memoria
+     */
+    private static class LectorCadena extends Lector {
+        private final String texto;
+        private int posicion;
         
-        /**
-         * Lee una cadena de texto (entre comillas dobles)
-         */
-        private ElementoBase leerTexto() {
-            posicion++; // Saltar '"'
-            StringBuilder sb = new StringBuilder();
-            
-            while (posicion < texto.length() && texto.charAt(posicion) != '"') {
-                char c = texto.charAt(posicion++);
-                if (c == '\\' && posicion < texto.length()) {
-                    char escapado = texto.charAt(posicion++);
-                    switch (escapado) {
-                        case 'n': sb.append('\n'); break;
-                        case 't': sb.append('\t'); break;
-                        case 'r': sb.append('\r'); break;
-                        case '"': sb.append('"'); break;
-                        case '\\': sb.append('\\'); break;
-                        default: sb.append(escapado); break;
-                    }
-                } else {
-                    sb.append(c);
-                }
-            }
-            
-            if (posicion >= texto.length() || texto.charAt(posicion) != '"') {
-                throw new ParseException("Cadena de texto no cerrada");
-            }
-            
-            posicion++; // Saltar '"'
-            return Texto.crear(sb.toString());
+        LectorCadena(String texto) {
+            this.texto = texto;
+            this.posicion = 0;
         }
         
-        /**
-         * Lee un número entero
-         */
-        private ElementoBase leerNumero() {
-            int inicio = posicion;
-            
-            if (texto.charAt(posicion) == '-') {
-                posicion++;
-            }
-            
-            while (posicion < texto.length() && Character.isDigit(texto.charAt(posicion))) {
-                posicion++;
-            }
-            
-            String numero = texto.substring(inicio, posicion);
-            try {
-                return Entero.crear(Long.parseLong(numero));
-            } catch (NumberFormatException e) {
-                throw new ParseException("Número inválido: " + numero);
-            }
+        @Override
+        protected int mirar() {
+            return posicion < texto.length() ? texto.charAt(posicion) : FIN;
         }
         
-        /**
-         * Lee un símbolo (identificador)
-         */
-        private ElementoBase leerSimbolo() {
-            int inicio = posicion;
-            
-            while (posicion < texto.length() && !Character.isWhitespace(texto.charAt(posicion)) && 
-                   texto.charAt(posicion) != '(' && texto.charAt(posicion) != ')' && 
-                   texto.charAt(posicion) != '\'' && texto.charAt(posicion) != '"') {
-                posicion++;
-            }
-            
-            String simbolo = texto.substring(inicio, posicion).toUpperCase();
-            
-            // Manejo de constantes especiales
-            if (simbolo.equals("NIL")) {
-                return Simbolo.VACIO;
-            } else if (simbolo.equals("T")) {
-                return Simbolo.VERDADERO;
-            } else {
-                return Simbolo.simbolo(simbolo);
-            }
+        @Override
+        protected int mirarSiguiente() {
+            return posicion + 1 < texto.length() ? texto.charAt(posicion + 1) : FIN;
         }
         
-        /**
-         * Avanza la posición hasta el primer carácter no-blanco
-         */
-        private void saltarEspaciosEnBlanco() {
-            while (posicion < texto.length()) {
-                char c = texto.charAt(posicion);
-                if (Character.isWhitespace(c)) {
-                    posicion++;
-                } else if (c == ';') {  // Comentarios de línea
-                    while (posicion < texto.length() && texto.charAt(posicion) != '\n') {
-                        posicion++;
-                    }
-                    if (posicion < texto.length()) {
-                        posicion++; // Saltar el '\n'
-                    }
-                } else {
-                    break;
-                }
-            }
+        @Override
+        protected void avanzar() {
+            posicion++;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+package interprete.util;
+
+import interprete.elementos.ElementoBase;
+import interprete.excepciones.ParseException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * Lee expresiones sucesivas de un Reader.
+ * Mantiene solo una ventana de caracteres, de modo que un script puede
+ * evaluarse forma por forma sin cargarlo completo en memoria.
+ */
+public class LectorFlujo extends Lector implements Closeable {
+    private static final int TAMANO_VENTANA = 8192;
+
+    private final Reader entrada;
+    private final char[] ventana = new char[TAMANO_VENTANA];
+    private int posicion;
+    private int limite;
+    private boolean agotado;
+
+    /**
+     * @param entrada El origen de los caracteres; no hace falta que tenga búfer propio
+     */
+    public LectorFlujo(Reader entrada) {
+        this.entrada = entrada;
+    }
+
+    /**
+     * Lee la siguiente expresión de la entrada
+     * @return La expresión, o null si no quedan más
+     * @throws ParseException si hay un error de sintaxis en la expresión
+     * @throws IOException si falla la lectura de la entrada
+     */
+    public ElementoBase siguiente() throws IOException {
+        try {
+            return leerExpresion();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        entrada.close();
+    }
+
+    @Override
+    protected int mirar() {
+        while (posicion >= limite) {
+            if (!llenar()) {
+                return FIN;
+            }
+        }
+        return ventana[posicion];
+    }
+
+    @Override
+    protected int mirarSiguiente() {
+        while (posicion + 1 >= limite) {
+            if (!llenar()) {
+                return FIN;
+            }
+        }
+        return ventana[posicion + 1];
+    }
+
+    @Override
+    protected void avanzar() {
+        posicion++;
+    }
+
+    /**
+     * Conserva los caracteres aún no consumidos al principio de la ventana
+     * y completa el resto desde la entrada.
+     * @return false si la entrada ya no tiene más caracteres
+     */
+    private boolean llenar() {
+        if (agotado) {
+            return false;
+        }
+        int pendientes = limite - posicion;
+        System.arraycopy(ventana, posicion, ventana, 0, pendientes);
+        posicion = 0;
+        limite = pendientes;
+
+        try {
+            int leidos = entrada.read(ventana, limite, ventana.length - limite);
+            if (leidos < 0) {
+                agotado = true;
+                return false;
+            }
+            limite += leidos;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package interprete.util;
+
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Entero;
+import interprete.elementos.Simbolo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lee expresiones de un archivo UTF-8 mapeado en memoria.
+ * Decodifica directamente sobre los bytes mapeados; los símbolos y números ASCII
+ * se reconocen sin construir cadenas intermedias, y cada símbolo distinto del
+ * archivo se convierte a String una sola vez.
+ */
+public class LectorMapeado extends Lector {
+    private static final int SIN_DECODIFICAR = -2;
+
+    private final ByteBuffer datos;
+    private final int limite;
+    private int posicion;
+    private int actual = SIN_DECODIFICAR;
+    private int longitudActual;
+    private int longitudDecodificada;
+    private final TablaSimbolos simbolos = new TablaSimbolos();
+
+    /**
+     * Mapea un archivo completo en memoria para leerlo
+     * @param ruta El archivo con el código fuente
+     * @throws IOException si el archivo no se puede abrir o es demasiado grande para mapearlo
+     */
+    public static LectorMapeado abrir(Path ruta) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano > Integer.MAX_VALUE) {
+                throw new IOException("Archivo demasiado grande para mapearlo: " + ruta);
+            }
+            // El mapeo sigue siendo válido después de cerrar el canal
+            return new LectorMapeado(canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano));
+        }
+    }
+
+    /**
+     * @param datos Bytes UTF-8 del código fuente, desde la posición 0 hasta su límite
+     */
+    public LectorMapeado(ByteBuffer datos) {
+        this.datos = datos;
+        this.limite = datos.limit();
+
+        // Saltar la marca de orden de bytes si el archivo la tiene
+        if (limite >= 3 && (datos.get(0) & 0xFF) == 0xEF && (datos.get(1) & 0xFF) == 0xBB
+                && (datos.get(2) & 0xFF) == 0xBF) {
+            posicion = 3;
+        }
+    }
+
+    /**
+     * Lee la siguiente expresión del archivo
+     * @return La expresión, o null si no quedan más
+     */
+    public ElementoBase siguiente() {
+        return leerExpresion();
+    }
+
+    @Override
+    protected int mirar() {
+        if (posicion >= limite) {
+            return FIN;
+        }
+        if (actual == SIN_DECODIFICAR) {
+            actual = decodificar(posicion);
+            longitudActual = longitudDecodificada;
+        }
+        return actual;
+    }
+
+    @Override
+    protected int mirarSiguiente() {
+        if (mirar() == FIN || posicion + longitudActual >= limite) {
+            return FIN;
+        }
+        return decodificar(posicion + longitudActual);
+    }
+
+    @Override
+    protected void avanzar() {
+        if (mirar() != FIN) {
+            posicion += longitudActual;
+            actual = SIN_DECODIFICAR;
+        }
+    }
+
+    /**
+     * Decodifica el punto de código UTF-8 que empieza en el índice dado.
+     * Deja su longitud en bytes en longitudDecodificada; una secuencia inválida
+     * se toma como un solo byte con el carácter de reemplazo.
+     */
+    private int decodificar(int indice) {
+        int b = datos.get(indice) & 0xFF;
+        if (b < 0x80) {
+            longitudDecodificada = 1;
+            return b;
+        }
+        if ((b & 0xE0) == 0xC0 && indice + 1 < limite) {
+            longitudDecodificada = 2;
+            return ((b & 0x1F) << 6) | (datos.get(indice + 1) & 0x3F);
+        }
+        if ((b & 0xF0) == 0xE0 && indice + 2 < limite) {
+            longitudDecodificada = 3;
+            return ((b & 0x0F) << 12) | ((datos.get(indice + 1) & 0x3F) << 6) | (datos.get(indice + 2) & 0x3F);
+        }
+        if ((b & 0xF8) == 0xF0 && indice + 3 < limite) {
+            longitudDecodificada = 4;
+            return ((b & 0x07) << 18) | ((datos.get(indice + 1) & 0x3F) << 12)
+                    | ((datos.get(indice + 2) & 0x3F) << 6) | (datos.get(indice + 3) & 0x3F);
+        }
+        longitudDecodificada = 1;
+        return 0xFFFD;
+    }
+
+    /**
+     * Lee un símbolo ASCII directamente de los bytes mapeados.
+     * Los símbolos con caracteres no ASCII pasan por la lectura general.
+     */
+    @Override
+    protected ElementoBase leerSimbolo() {
+        int inicio = posicion;
+        int fin = posicion;
+        int hash = 0;
+
+        while (fin < limite) {
+            int b = datos.get(fin);
+            if (b < 0) {
+                return super.leerSimbolo();
+            }
+            if (terminaSimbolo(b)) {
+                break;
+            }
+            hash = 31 * hash + mayuscula(b);
+            fin++;
+        }
+
+        posicion = fin;
+        actual = SIN_DECODIFICAR;
+        return simbolos.obtener(inicio, fin, hash);
+    }
+
+    /**
+     * Lee un número ASCII acumulando sus dígitos sin pasar por una cadena
+     */
+    @Override
+    protected ElementoBase leerNumero() {
+        int indice = posicion;
+        boolean negativo = datos.get(indice) == '-';
+        if (negativo) {
+            indice++;
+        }
+
+        // Se acumula en negativo para que Long.MIN_VALUE también sea representable
+        long valor = 0;
+        while (indice < limite) {
+            int b = datos.get(indice);
+            if (b < '0' || b > '9') {
+                if (b < 0) {
+                    return super.leerNumero();
+                }
+                break;
+            }
+            int digito = b - '0';
+            if (valor < (Long.MIN_VALUE + digito) / 10) {
+                // No cabe en un long: la lectura general lo lee como entero grande
+                return super.leerNumero();
+            }
+            valor = valor * 10 - digito;
+            indice++;
+        }
+        if (!negativo && valor == Long.MIN_VALUE) {
+            return super.leerNumero();
+        }
+
+        posicion = indice;
+        actual = SIN_DECODIFICAR;
+        return Entero.crear(negativo ? valor : -valor);
+    }
+
+    private static int mayuscula(int b) {
+        return b >= 'a' && b <= 'z' ? b - ('a' - 'A') : b;
+    }
+
+    /**
+     * Tabla de direccionamiento abierto que asocia los bytes de un símbolo ya
+     * visto en este archivo con su Simbolo, para no crear un String cada vez.
+     */
+    private class TablaSimbolos {
+        private byte[][] claves = new byte[256][];
+        private Simbolo[] valores = new Simbolo[256];
+        private int[] hashes = new int[256];
+        private int cantidad;
+
+        Simbolo obtener(int inicio, int fin, int hash) {
+            int mascara = claves.length - 1;
+            int i = mezclar(hash) & mascara;
+            while (claves[i] != null) {
+                if (hashes[i] == hash && coincide(claves[i], inicio, fin)) {
+                    return valores[i];
+                }
+                i = (i + 1) & mascara;
+            }
+
+            byte[] clave = new byte[fin - inicio];
+            for (int j = 0; j < clave.length; j++) {
+                clave[j] = (byte) mayuscula(datos.get(inicio + j));
+            }
+            Simbolo simbolo = simbolo(new String(clave, StandardCharsets.US_ASCII));
+
+            claves[i] = clave;
+            valores[i] = simbolo;
+            hashes[i] = hash;
+            if (++cantidad * 2 > claves.length) {
+                crecer();
+            }
+            return simbolo;
+        }
+
+        private boolean coincide(byte[] clave, int inicio, int fin) {
+            if (clave.length != fin - inicio) {
+                return false;
+            }
+            for (int j = 0; j < clave.length; j++) {
+                if (clave[j] != mayuscula(datos.get(inicio + j))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void crecer() {
+            byte[][] clavesAnteriores = claves;
+            Simbolo[] valoresAnteriores = valores;
+            int[] hashesAnteriores = hashes;
+            claves = new byte[clavesAnteriores.length * 2][];
+            valores = new Simbolo[claves.length];
+            hashes = new int[claves.length];
+
+            int mascara = claves.length - 1;
+            for (int j = 0; j < clavesAnteriores.length; j++) {
+                if (clavesAnteriores[j] != null) {
+                    int i = mezclar(hashesAnteriores[j]) & mascara;
+                    while (claves[i] != null) {
+                        i = (i + 1) & mascara;
+                    }
+                    claves[i] = clavesAnteriores[j];
+                    valores[i] = valoresAnteriores[j];
+                    hashes[i] = hashesAnteriores[j];
+                }
+            }
+        }
+
+        private int mezclar(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
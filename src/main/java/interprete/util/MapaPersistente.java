@@ -0,0 +1,239 @@
+package interprete.util;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Mapa inmutable implementado como un trie de dispersión (HAMT).
+ * Agregar una clave devuelve un mapa nuevo que comparte con el anterior todo salvo
+ * el camino hasta la clave, de unos pocos nodos, así que un mapa ya publicado puede
+ * leerse desde cualquier hilo sin sincronización. Cada nivel consume cinco bits de
+ * la dispersión de la clave; las claves con la misma dispersión comparten un nodo.
+ * No admite claves ni valores nulos.
+ */
+public final class MapaPersistente<K, V> {
+    private static final MapaPersistente<?, ?> VACIO = new MapaPersistente<>(NodoIndexado.VACIO, 0);
+
+    private final Nodo raiz;
+    private final int tamano;
+
+    private MapaPersistente(Nodo raiz, int tamano) {
+        this.raiz = raiz;
+        this.tamano = tamano;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> MapaPersistente<K, V> vacio() {
+        return (MapaPersistente<K, V>) VACIO;
+    }
+
+    /**
+     * @return El valor asociado, o null si la clave no está
+     */
+    @SuppressWarnings("unchecked")
+    public V obtener(K clave) {
+        return (V) raiz.obtener(clave, dispersion(clave), 0);
+    }
+
+    /**
+     * Mapa igual a este con la clave asociada al valor; este no cambia
+     * @return Un mapa nuevo, o este mismo si la clave ya tenía ese valor
+     */
+    public MapaPersistente<K, V> con(K clave, V valor) {
+        boolean[] agregada = new boolean[1];
+        Nodo nueva = raiz.con(clave, dispersion(clave), valor, 0, agregada);
+        if (nueva == raiz) {
+            return this;
+        }
+        return new MapaPersistente<>(nueva, agregada[0] ? tamano + 1 : tamano);
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    /**
+     * Aplica la acción a cada clave y su valor, en un orden que depende de la dispersión
+     */
+    @SuppressWarnings("unchecked")
+    public void recorrer(BiConsumer<? super K, ? super V> accion) {
+        raiz.recorrer((BiConsumer<Object, Object>) accion);
+    }
+
+    private static int dispersion(Object clave) {
+        int h = clave.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int dispersion, int desplazamiento) {
+        return 1 << ((dispersion >>> desplazamiento) & 31);
+    }
+
+    private abstract static class Nodo {
+        abstract Object obtener(Object clave, int dispersion, int desplazamiento);
+
+        /**
+         * @param agregada Se marca si la clave no estaba
+         * @return El nodo con la clave asociada, o este mismo si no hubo cambios
+         */
+        abstract Nodo con(Object clave, int dispersion, Object valor, int desplazamiento, boolean[] agregada);
+
+        abstract void recorrer(BiConsumer<Object, Object> accion);
+    }
+
+    /**
+     * Nodo con hasta 32 ramas, una por cada valor de los cinco bits de este nivel.
+     * El mapa de bits indica qué ramas existen y el arreglo guarda solo esas, de a
+     * pares: la clave y su valor, o null y el subnodo cuando hay varias claves en la rama.
+     */
+    private static final class NodoIndexado extends Nodo {
+        static final NodoIndexado VACIO = new NodoIndexado(0, new Object[0]);
+
+        private final int mapaBits;
+        private final Object[] arreglo;
+
+        NodoIndexado(int mapaBits, Object[] arreglo) {
+            this.mapaBits = mapaBits;
+            this.arreglo = arreglo;
+        }
+
+        private int posicion(int bit) {
+            return 2 * Integer.bitCount(mapaBits & (bit - 1));
+        }
+
+        @Override
+        Object obtener(Object clave, int dispersion, int desplazamiento) {
+            int bit = bit(dispersion, desplazamiento);
+            if ((mapaBits & bit) == 0) {
+                return null;
+            }
+            int i = posicion(bit);
+            Object claveRama = arreglo[i];
+            if (claveRama == null) {
+                return ((Nodo) arreglo[i + 1]).obtener(clave, dispersion, desplazamiento + 5);
+            }
+            return clave.equals(claveRama) ? arreglo[i + 1] : null;
+        }
+
+        @Override
+        Nodo con(Object clave, int dispersion, Object valor, int desplazamiento, boolean[] agregada) {
+            int bit = bit(dispersion, desplazamiento);
+            int i = posicion(bit);
+
+            if ((mapaBits & bit) == 0) {
+                Object[] nuevo = new Object[arreglo.length + 2];
+                System.arraycopy(arreglo, 0, nuevo, 0, i);
+                nuevo[i] = clave;
+                nuevo[i + 1] = valor;
+                System.arraycopy(arreglo, i, nuevo, i + 2, arreglo.length - i);
+                agregada[0] = true;
+                return new NodoIndexado(mapaBits | bit, nuevo);
+            }
+
+            Object claveRama = arreglo[i];
+            Object valorRama = arreglo[i + 1];
+            Object reemplazo;
+            if (claveRama == null) {
+                reemplazo = ((Nodo) valorRama).con(clave, dispersion, valor, desplazamiento + 5, agregada);
+                if (reemplazo == valorRama) {
+                    return this;
+                }
+            } else if (clave.equals(claveRama)) {
+                if (valor == valorRama) {
+                    return this;
+                }
+                Object[] nuevo = arreglo.clone();
+                nuevo[i + 1] = valor;
+                return new NodoIndexado(mapaBits, nuevo);
+            } else {
+                // Dos claves en la misma rama: se separan en un nivel más
+                reemplazo = crearRama(claveRama, valorRama, clave, dispersion, valor, desplazamiento + 5);
+                agregada[0] = true;
+            }
+
+            Object[] nuevo = arreglo.clone();
+            nuevo[i] = null;
+            nuevo[i + 1] = reemplazo;
+            return new NodoIndexado(mapaBits, nuevo);
+        }
+
+        private static Nodo crearRama(Object clave1, Object valor1, Object clave2, int dispersion2, Object valor2,
+                                      int desplazamiento) {
+            int dispersion1 = dispersion(clave1);
+            if (dispersion1 == dispersion2) {
+                return new NodoColision(dispersion1, new Object[] {clave1, valor1, clave2, valor2});
+            }
+            boolean[] ignorada = new boolean[1];
+            return VACIO.con(clave1, dispersion1, valor1, desplazamiento, ignorada)
+                    .con(clave2, dispersion2, valor2, desplazamiento, ignorada);
+        }
+
+        @Override
+        void recorrer(BiConsumer<Object, Object> accion) {
+            for (int i = 0; i < arreglo.length; i += 2) {
+                if (arreglo[i] == null) {
+                    ((Nodo) arreglo[i + 1]).recorrer(accion);
+                } else {
+                    accion.accept(arreglo[i], arreglo[i + 1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Claves distintas con la misma dispersión, guardadas de a pares clave y valor
+     */
+    private static final class NodoColision extends Nodo {
+        private final int dispersion;
+        private final Object[] arreglo;
+
+        NodoColision(int dispersion, Object[] arreglo) {
+            this.dispersion = dispersion;
+            this.arreglo = arreglo;
+        }
+
+        @Override
+        Object obtener(Object clave, int dispersion, int desplazamiento) {
+            for (int i = 0; i < arreglo.length; i += 2) {
+                if (clave.equals(arreglo[i])) {
+                    return arreglo[i + 1];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        Nodo con(Object clave, int dispersion, Object valor, int desplazamiento, boolean[] agregada) {
+            if (dispersion != this.dispersion) {
+                // La clave nueva se distingue en este nivel o más abajo: se cuelga este nodo de uno indexado
+                NodoIndexado contenedor = new NodoIndexado(bit(this.dispersion, desplazamiento),
+                        new Object[] {null, this});
+                return contenedor.con(clave, dispersion, valor, desplazamiento, agregada);
+            }
+
+            for (int i = 0; i < arreglo.length; i += 2) {
+                if (clave.equals(arreglo[i])) {
+                    if (valor == arreglo[i + 1]) {
+                        return this;
+                    }
+                    Object[] nuevo = arreglo.clone();
+                    nuevo[i + 1] = valor;
+                    return new NodoColision(dispersion, nuevo);
+                }
+            }
+
+            Object[] nuevo = new Object[arreglo.length + 2];
+            System.arraycopy(arreglo, 0, nuevo, 0, arreglo.length);
+            nuevo[arreglo.length] = clave;
+            nuevo[arreglo.length + 1] = valor;
+            agregada[0] = true;
+            return new NodoColision(dispersion, nuevo);
+        }
+
+        @Override
+        void recorrer(BiConsumer<Object, Object> accion) {
+            for (int i = 0; i < arreglo.length; i += 2) {
+                accion.accept(arreglo[i], arreglo[i + 1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package interprete;
+
+import interprete.elementos.*;
+import interprete.evaluacion.FuncionMemorizada;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchivoImagenTest {
+    private static final PrintStream SALIDA = new PrintStream(OutputStream.nullOutputStream());
+
+    @TempDir
+    Path directorio;
+
+    private static ElementoBase evaluar(Interprete interprete, String codigo) {
+        return interprete.evaluar(interprete.leer(codigo));
+    }
+
+    private ImagenGlobal guardarYCargar(String... codigo) throws IOException {
+        ImagenGlobal imagen = new ImagenGlobal();
+        Interprete interprete = new Interprete(imagen, SALIDA);
+        for (String expresion : codigo) {
+            evaluar(interprete, expresion);
+        }
+        interprete.publicar();
+
+        Path archivo = directorio.resolve("imagen.bin");
+        imagen.guardar(archivo);
+        return ImagenGlobal.cargar(archivo);
+    }
+
+    private static ElementoBase obtener(ImagenGlobal imagen, String nombre) {
+        return imagen.obtener(Simbolo.simbolo(nombre));
+    }
+
+    @Test
+    void conservaCicloDeListaPorVectorYLasReferenciasSiguientes() throws Exception {
+        ImagenGlobal imagen = guardarYCargar(
+                "(ASIGNAR L (LISTA 1 (VECTOR 0)))",
+                "(FIJAR_ELEMENTO (PRIMERO (RESTO L)) 0 L)",
+                "(ASIGNAR W (VECTOR 7 8))",
+                "(ASIGNAR TB (TABLA))",
+                "(GUARDAR TB 'A L)",
+                "(GUARDAR TB 'B W)",
+                "(GUARDAR TB 'C W)");
+
+        // El vector solo se alcanza desde la lista, así que se escribe dentro de ella
+        Enlace lista = (Enlace) obtener(imagen, "L");
+        Arreglo vector = (Arreglo) ((Enlace) lista.resto()).primero();
+        assertSame(lista, vector.obtener(0));
+
+        TablaHash tabla = (TablaHash) obtener(imagen, "TB");
+        Arreglo otro = (Arreglo) obtener(imagen, "W");
+        assertSame(lista, tabla.obtener(Simbolo.simbolo("A")));
+        assertSame(otro, tabla.obtener(Simbolo.simbolo("B")));
+        assertSame(otro, tabla.obtener(Simbolo.simbolo("C")));
+        assertEquals(8L, ((Entero) otro.obtener(1)).valor());
+    }
+
+    @Test
+    void conservaEstructuraCompartidaYCiclosPorContenedores() throws Exception {
+        ImagenGlobal imagen = guardarYCargar(
+                "(ASIGNAR L '(1 2 (3 \"hola\") 123456789012345678901234567890 -5))",
+                "(ASIGNAR M (ENLAZAR 0 L))",
+                "(ASIGNAR V (VECTOR 1 2))",
+                "(AGREGAR V V)",
+                "(ASIGNAR TB (TABLA 'L L))",
+                "(GUARDAR TB 'YO TB)",
+                "(ASIGNAR LARGA (LISTA 1 2 3 4 5 6 7 8 9 10 V TB))",
+                "(FIJAR_ELEMENTO V 0 LARGA)");
+
+        ElementoBase lista = obtener(imagen, "L");
+        assertSame(lista, ((Enlace) obtener(imagen, "M")).resto());
+        Arreglo vector = (Arreglo) obtener(imagen, "V");
+        assertSame(vector, vector.obtener(2));
+        TablaHash tabla = (TablaHash) obtener(imagen, "TB");
+        assertSame(tabla, tabla.obtener(Simbolo.simbolo("YO")));
+        assertSame(lista, tabla.obtener(Simbolo.simbolo("L")));
+        assertSame(obtener(imagen, "LARGA"), vector.obtener(0));
+
+        Interprete interprete = new Interprete(imagen, SALIDA);
+        assertEquals("(1 2 (3 \"hola\") 123456789012345678901234567890 -5)", evaluar(interprete, "L").toString());
+        assertEquals(12L, ((Entero) evaluar(interprete, "(LONGITUD LARGA)")).valor());
+    }
+
+    @Test
+    void restauraFuncionesCierresYPrimitivas() throws Exception {
+        ImagenGlobal imagen = guardarYCargar(
+                "(DEF_FUNCION FIB (N) (SI (< N 2) N (+ (FIB (- N 1)) (FIB (- N 2)))))",
+                "(DEF_FUNCION_MEMO FM (N) (SI (< N 2) N (+ (FM (- N 1)) (FM (- N 2)))))",
+                "(CONFIGURAR_MEMO FM 50 'FIFO)",
+                "(DEF_FUNCION HACER (X) (DEF_FUNCION SUMAR (Y) (+ X Y)) SUMAR)",
+                "(ASIGNAR S5 (HACER 5))",
+                "(DEF_FUNCION CONTAR () (DEF_FUNCION BUCLE (K) (SI (= K 0) 'FIN (BUCLE (- K 1)))) BUCLE)",
+                "(ASIGNAR B (CONTAR))",
+                "(ASIGNAR MAS +)");
+
+        Interprete interprete = new Interprete(imagen, SALIDA);
+        assertEquals(6765L, ((Entero) evaluar(interprete, "(FIB 20)")).valor());
+        assertEquals(23416728348467685L, ((Entero) evaluar(interprete, "(FM 80)")).valor());
+        FuncionMemorizada memo = (FuncionMemorizada) obtener(imagen, "FM");
+        assertEquals(50, memo.getCapacidad());
+        assertFalse(memo.esLru());
+        assertEquals(15L, ((Entero) evaluar(interprete, "(S5 10)")).valor());
+        assertSame(Simbolo.simbolo("FIN"), evaluar(interprete, "(B 1000)"));
+        assertSame(obtener(imagen, "+"), obtener(imagen, "MAS"));
+    }
+
+    @Test
+    void leeListasLargasSinDesbordarLaPila() throws Exception {
+        ImagenGlobal imagen = guardarYCargar(
+                "(DEF_FUNCION ARMAR (N AC) (SI (= N 0) AC (ARMAR (- N 1) (ENLAZAR (VECTOR N) AC))))",
+                "(ASIGNAR G (ARMAR 100000 '()))");
+
+        Interprete interprete = new Interprete(imagen, SALIDA);
+        assertEquals(100000L, ((Entero) evaluar(interprete, "(LONGITUD G)")).valor());
+    }
+
+    @Test
+    void rechazaArchivosInvalidos() throws Exception {
+        Path archivo = directorio.resolve("invalida.bin");
+        Files.write(archivo, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> ImagenGlobal.cargar(archivo));
+    }
+}
@@ -0,0 +1,73 @@
+package interprete;
+
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Entero;
+import interprete.elementos.Simbolo;
+import interprete.evaluacion.Analizador;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+import interprete.excepciones.LimiteRecursionExcedidoException;
+import interprete.excepciones.PresupuestoAgotadoException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterpreteTest {
+    private static final PrintStream SALIDA = new PrintStream(OutputStream.nullOutputStream());
+
+    private static final String SUMA = "(DEF_FUNCION SUMA (N) (SI (= N 0) 0 (+ N (SUMA (- N 1)))))";
+
+    private static ElementoBase ejecutar(Interprete interprete, String codigo) throws ArgumentoInvalidoExcepcion {
+        return interprete.ejecutar(new Analizador().analizar(interprete.leer(codigo)));
+    }
+
+    @Test
+    void laProfundidadPredeterminadaSeCuentaSinAgotarLaPila() throws Exception {
+        Interprete interprete = new Interprete(SALIDA);
+        ejecutar(interprete, SUMA);
+
+        assertEquals(Entero.crear(499500), ejecutar(interprete, "(SUMA 999)"));
+        LimiteRecursionExcedidoException error = assertThrows(LimiteRecursionExcedidoException.class,
+                () -> ejecutar(interprete, "(SUMA 1000)"));
+        assertEquals(Interprete.PROFUNDIDAD_MAXIMA_PREDETERMINADA + 1, error.getProfundidadAlcanzada());
+    }
+
+    @Test
+    void elPresupuestoPermiteExactamenteSusLlamadas() throws Exception {
+        Interprete uno = new Interprete(SALIDA, 0, 1);
+        ejecutar(uno, "(DEF_FUNCION F (N) N)");
+        assertEquals(Entero.crear(1), ejecutar(uno, "(F 1)"));
+        assertThrows(PresupuestoAgotadoException.class, () -> ejecutar(uno, "(F (F 1))"));
+
+        // LISTA también es una llamada
+        Interprete tres = new Interprete(SALIDA, 0, 3);
+        ejecutar(tres, "(DEF_FUNCION F (N) N)");
+        assertEquals("(1 2)", imprimir(ejecutar(tres, "(LISTA (F 1) (F 2))")));
+        assertThrows(PresupuestoAgotadoException.class, () -> ejecutar(tres, "(LISTA (F 1) (F 2) (F 3))"));
+    }
+
+    @Test
+    void cargarSeDetieneEnLaPrimeraExpresionQueFalla(@TempDir Path directorio) throws Exception {
+        Path biblioteca = directorio.resolve("biblioteca.lisp");
+        Files.writeString(biblioteca, "(ASIGNAR ANTES 1)\n(/ ANTES (PRIMERO 3))\n(ASIGNAR DESPUES 2)\n");
+        Interprete interprete = new Interprete(SALIDA);
+
+        String ruta = biblioteca.toString().replace("\\", "\\\\");
+        assertThrows(ArgumentoInvalidoExcepcion.class, () -> ejecutar(interprete, "(CARGAR \"" + ruta + "\")"));
+        assertEquals(Entero.crear(1), interprete.obtenerGlobal(Simbolo.simbolo("ANTES")));
+        assertNull(interprete.obtenerGlobal(Simbolo.simbolo("DESPUES")));
+    }
+
+    private static String imprimir(ElementoBase elemento) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        elemento.imprimir(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,67 @@
+package interprete.evaluacion;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Entero;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuncionMemorizadaTest {
+    private static final PrintStream SALIDA = new PrintStream(OutputStream.nullOutputStream());
+
+    // Cuenta las formas de recorrer la lista avanzando uno o dos elementos; sin cache es exponencial
+    private static final String CAMINOS = "(DEF_FUNCION_MEMO CAMINOS (L) (SI (NULO L) 1 (SI (NULO (RESTO L)) 1"
+            + " (+ (CAMINOS (RESTO L)) (CAMINOS (RESTO (RESTO L)))))))";
+
+    private static ElementoBase evaluar(Interprete interprete, String codigo) {
+        return interprete.evaluar(interprete.leer(codigo));
+    }
+
+    private static String elementos(int cantidad) {
+        return IntStream.range(0, cantidad).mapToObj(Integer::toString).collect(Collectors.joining(" "));
+    }
+
+    private static void verificarRestos(String lista) {
+        Interprete interprete = new Interprete(SALIDA);
+        evaluar(interprete, CAMINOS);
+        ElementoBase resultado = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> evaluar(interprete, "(CAMINOS " + lista + ")"));
+
+        // Fibonacci(101)
+        assertEquals(new BigInteger("573147844013817084101"), ((Entero) resultado).valorGrande());
+        FuncionMemorizada funcion = (FuncionMemorizada) evaluar(interprete, "CAMINOS");
+        assertEquals(101, funcion.getFallos());
+        assertEquals(98, funcion.getAciertos());
+    }
+
+    @Test
+    void recuerdaLosRestosDeUnaListaCitadaLarga() {
+        verificarRestos("'(" + elementos(100) + ")");
+    }
+
+    @Test
+    void recuerdaLosRestosDeUnaListaConstruidaLarga() {
+        verificarRestos("(LISTA " + elementos(100) + ")");
+    }
+
+    @Test
+    void unaCopiaDeUnaListaLargaVuelveAEjecutarElCuerpo() {
+        Interprete interprete = new Interprete(SALIDA);
+        evaluar(interprete, "(DEF_FUNCION_MEMO LARGO (L) (SI (NULO L) 0 (+ 1 (LARGO (RESTO L)))))");
+        evaluar(interprete, "(LARGO '(" + elementos(100) + "))");
+        evaluar(interprete, "(LARGO '(" + elementos(100) + "))");
+
+        // Los restos de menos de 65 elementos se comparan por estructura
+        FuncionMemorizada funcion = (FuncionMemorizada) evaluar(interprete, "LARGO");
+        assertEquals(101 + 36, funcion.getFallos());
+        assertEquals(1, funcion.getAciertos());
+    }
+}
@@ -0,0 +1,51 @@
+package interprete.primitivas;
+
+import interprete.Interprete;
+import interprete.elementos.ElementoBase;
+import interprete.elementos.Entero;
+import interprete.evaluacion.Analizador;
+import interprete.excepciones.ArgumentoInvalidoExcepcion;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimitivasRegistroTest {
+    private static final PrintStream SALIDA = new PrintStream(OutputStream.nullOutputStream());
+
+    private static ElementoBase ejecutar(Interprete interprete, String codigo) throws ArgumentoInvalidoExcepcion {
+        return interprete.ejecutar(new Analizador().analizar(interprete.leer(codigo)));
+    }
+
+    @Test
+    void pmapearSeDetieneYLanzaUnErrorDeJava() throws Exception {
+        int cantidad = 20000;
+        Interprete interprete = new Interprete(SALIDA);
+        ejecutar(interprete, "(ASIGNAR LLAMADAS (VECTOR 0))");
+        // Solo falla el primer elemento de la segunda mitad, que toma otro hilo; los demás
+        // cuentan cuántas veces se aplicó la función
+        ejecutar(interprete, "(DEF_FUNCION F (X) (SI (= X " + cantidad / 2 + ") (/ 1 0)"
+                + " (FIJAR_ELEMENTO LLAMADAS 0 (+ 1 (ELEMENTO LLAMADAS 0)))))");
+        String lista = IntStream.range(0, cantidad).mapToObj(Integer::toString).collect(Collectors.joining(" "));
+
+        // En un pool propio con varios hilos, que roban tramos aunque haya un solo procesador
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ArithmeticException error = pool.submit(() -> assertThrows(ArithmeticException.class,
+                    () -> ejecutar(interprete, "(PMAPEAR F '(" + lista + "))"))).get();
+            assertEquals("División por cero", error.getMessage());
+            // Un tramo que siguió en otro hilo terminaría de contar aquí
+            pool.awaitQuiescence(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        long llamadas = ((Entero) ejecutar(interprete, "(ELEMENTO LLAMADAS 0)")).valor();
+        assertTrue(llamadas < cantidad / 4, "La función se siguió aplicando " + llamadas + " veces");
+    }
+}
@@ -0,0 +1,57 @@
+package interprete.script;
+
+import org.junit.jupiter.api.Test;
+
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MotorLispTest {
+    private static final int HILOS = 8;
+    private static final int EVALUACIONES = 300;
+
+    @Test
+    void variosHilosEvaluanConLosMismosVinculosDelMotor() throws Exception {
+        ScriptEngine motor = new FabricaMotorLisp().getScriptEngine();
+        motor.put("BASE", 1000L);
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+        try {
+            for (int h = 0; h < HILOS; h++) {
+                int hilo = h;
+                tareas.add(hilos.submit(() -> {
+                    inicio.await();
+                    for (int i = 0; i < EVALUACIONES; i++) {
+                        // Cada evaluación lee todos los vínculos mientras los otros hilos agregan
+                        assertEquals(1000L + i, motor.eval("(ASIGNAR V" + hilo + "_" + i + " (+ BASE " + i + "))"));
+                    }
+                    return null;
+                }));
+            }
+            inicio.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+
+        Bindings vinculos = motor.getBindings(ScriptContext.ENGINE_SCOPE);
+        assertEquals(HILOS * EVALUACIONES + 1, vinculos.size());
+        for (int h = 0; h < HILOS; h++) {
+            for (int i = 0; i < EVALUACIONES; i++) {
+                assertEquals(1000L + i, vinculos.get("V" + h + "_" + i));
+            }
+        }
+    }
+}